@@ -26,7 +26,7 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.AbortException;
 import hudson.EnvVars;
 import hudson.Extension;
-import hudson.FilePath;
+import hudson.Util;
 import hudson.model.EnvironmentSpecific;
 import hudson.model.JobProperty;
 import hudson.model.JobPropertyDescriptor;
@@ -34,6 +34,7 @@ import hudson.model.TaskListener;
 import hudson.model.Node;
 import hudson.remoting.VirtualChannel;
 import hudson.slaves.NodeSpecific;
+import hudson.tools.InstallSourceProperty;
 import hudson.tools.ToolDescriptor;
 import hudson.tools.ToolInstaller;
 import hudson.tools.ToolInstallation;
@@ -43,15 +44,26 @@ import hudson.tools.ZipExtractionInstaller;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
-import jenkins.MasterToSlaveFileCallable;
+import jenkins.model.Jenkins;
+import jenkins.plugins.customtools.ToolsSnapshot;
+import jenkins.plugins.customtools.install.InstallationCache;
+import jenkins.plugins.customtools.install.ToolPlan;
+import jenkins.plugins.customtools.util.LabelSpecificsMatcher;
+import jenkins.security.MasterToSlaveCallable;
 import jenkins.plugins.customtools.util.envvars.VariablesSubstitutionHelper;
+import jenkins.plugins.customtools.util.envvars.VariablesTemplate;
 
 import org.jenkinsci.Symbol;
 import org.kohsuke.accmod.Restricted;
@@ -81,6 +93,10 @@ public class CustomTool extends ToolInstallation implements
      * A cached value of the home directory.
      */
     private transient @CheckForNull String correctedHome = null;
+    /**
+     * A cached fingerprint of the tool configuration.
+     */
+    private transient volatile @CheckForNull String configFingerprint = null;
     /**
      * Optional field, which referenced the {@link ToolVersion} configuration.
      */
@@ -90,8 +106,17 @@ public class CustomTool extends ToolInstallation implements
      * Stores variables expression in *.properties format.
      */
     private final @CheckForNull String additionalVariables;
+    /**
+     * Compiled form of {@link #additionalVariables}.
+     */
+    private transient volatile VariablesTemplate additionalVariablesTemplate;
+    /**
+     * Compiled plan, which creates the tool for builds.
+     */
+    private transient volatile ToolPlan plan;
 
     private static final LabelSpecifics[] EMPTY_LABELS = new LabelSpecifics[0];
+    private static final Logger LOGGER = Logger.getLogger(CustomTool.class.getName());
 
     @DataBoundConstructor
     public CustomTool(@Nonnull String name, @CheckForNull String home,
@@ -147,6 +172,56 @@ public class CustomTool extends ToolInstallation implements
         return additionalVariables;
     }
 
+    /**
+     * Gets the compiled additional variables.
+     * @return Compiled variables or {@code null} if the tool has no additional variables
+     * @throws IOException Cannot parse additional variables
+     * @since 0.9
+     */
+    @Restricted(NoExternalUse.class)
+    public @CheckForNull VariablesTemplate getAdditionalVariablesTemplate() throws IOException {
+        if (additionalVariables == null) {
+            return null;
+        }
+        VariablesTemplate template = additionalVariablesTemplate;
+        if (template == null) {
+            template = VariablesTemplate.compile(additionalVariables);
+            additionalVariablesTemplate = template;
+        }
+        return template;
+    }
+
+    /**
+     * Gets the plan, which creates the tool for builds.
+     * @return Compiled plan
+     * @since 0.9
+     */
+    @Restricted(NoExternalUse.class)
+    public @Nonnull ToolPlan getPlan() {
+        ToolPlan current = plan;
+        if (current == null) {
+            current = new ToolPlan(this);
+            plan = current;
+        }
+        return current;
+    }
+
+    /**
+     * Gets a fingerprint of the tool configuration.
+     * Fingerprints of tools with the same configuration are equal.
+     * @return Hex-encoded digest of the tool configuration
+     * @since 0.9
+     */
+    @Restricted(NoExternalUse.class)
+    public @Nonnull String getConfigFingerprint() {
+        String fingerprint = configFingerprint;
+        if (fingerprint == null) {
+            fingerprint = Util.getDigestOf(Jenkins.XSTREAM2.toXML(this));
+            configFingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
     @Override
     public CustomTool forEnvironment(EnvVars environment) {
         String substitutedHomeDir = VariablesSubstitutionHelper.PATH.resolveVariable(getHome(), environment);
@@ -162,7 +237,19 @@ public class CustomTool extends ToolInstallation implements
     @Override
     public @Nonnull CustomTool forNode(Node node, TaskListener log)
             throws IOException, InterruptedException {
-        String substitutedHomeDir = VariablesSubstitutionHelper.PATH.resolveVariable(translateFor(node, log), node);
+        return forInstalledHome(node, translateFor(node, log));
+    }
+
+    /**
+     * Creates a node-specific tool for the home directory, which has been already installed.
+     * @param node Target node
+     * @param installedHome Home directory returned by {@link #translateFor(hudson.model.Node, hudson.model.TaskListener)}
+     * @return Node-specific tool
+     * @since 0.9
+     */
+    @Restricted(NoExternalUse.class)
+    public @Nonnull CustomTool forInstalledHome(@Nonnull Node node, @CheckForNull String installedHome) {
+        String substitutedHomeDir = VariablesSubstitutionHelper.PATH.resolveVariable(installedHome, node);
         String substitutedPath = VariablesSubstitutionHelper.PATH.resolveVariable(exportedPaths, node);
         String substitutedAdditionalVariables = VariablesSubstitutionHelper.PROP_FILE.resolveVariable(additionalVariables, node);
 
@@ -171,6 +258,60 @@ public class CustomTool extends ToolInstallation implements
                 toolVersion, substitutedAdditionalVariables);
     }
 
+    /**
+     * Gets the tool, which is installed to the home directory of the specified version.
+     * If the home contains the version variable, the variable is replaced by the version.
+     * Otherwise the version is appended to the home as a subdirectory.
+     * Tools without installers are never versioned, their homes are managed by users.
+     * @param version Effective version of the tool
+     * @return Tool with the version-specific home.
+     *      The tool itself if the version is not specified, versioned homes are disabled,
+     *      or the tool has no installers
+     * @since 0.9
+     */
+    @Restricted(NoExternalUse.class)
+    public @Nonnull CustomTool forVersion(@CheckForNull String version) {
+        final ToolVersionConfig versionConfig = toolVersion;
+        if (Util.fixEmptyAndTrim(version) == null || versionConfig == null || !versionConfig.isVersionedHomes()
+                || getProperties().get(InstallSourceProperty.class) == null) {
+            return this;
+        }
+
+        final String versionDir = sanitize(version.trim());
+        final String variable = "${" + versionConfig.getVersionsListSource().getName() + "}";
+        String versionedHome = Util.fixEmptyAndTrim(super.getHome());
+        if (versionedHome != null && versionedHome.contains(variable)) {
+            versionedHome = versionedHome.replace(variable, versionDir);
+        } else {
+            if (versionedHome == null) {
+                // Mirrors the default location of ToolInstaller
+                versionedHome = sanitize(getDescriptor().getId()) + "/" + sanitize(getName());
+            }
+            versionedHome = versionedHome + "/" + versionDir;
+        }
+        final CustomTool versioned = new CustomTool(getName(), versionedHome, getProperties().toList(),
+                exportedPaths, labelSpecifics, toolVersion, additionalVariables);
+        // The copy differs only by the home, so its fingerprint is derived without serializing it again
+        versioned.configFingerprint = Util.getDigestOf(getConfigFingerprint() + '\0' + versionedHome);
+        return versioned;
+    }
+
+    /**
+     * Checks if versions of the tool are installed to their own home directories.
+     * @return {@code true} if versioned homes are enabled
+     * @since 0.9
+     */
+    @Restricted(NoExternalUse.class)
+    public boolean hasVersionedHomes() {
+        return toolVersion != null && toolVersion.isVersionedHomes();
+    }
+
+    private static @Nonnull String sanitize(@Nonnull String value) {
+        final String sanitized = value.replaceAll("[^A-Za-z0-9_.-]+", "_");
+        // Prevent path traversal
+        return sanitized.matches("\\.*") ? sanitized.replace('.', '_') : sanitized;
+    }
+
     //FIXME: just a stub
     @Deprecated
     @Restricted(NoExternalUse.class)
@@ -202,10 +343,9 @@ public class CustomTool extends ToolInstallation implements
     public @Nonnull List<LabelSpecifics> getAppliedSpecifics(@Nonnull Node node) {
         List<LabelSpecifics> out = new LinkedList<>();
         if (labelSpecifics != null) {
-            for (LabelSpecifics spec : labelSpecifics) {
-                if (spec.appliesTo(node)) {
-                    out.add(spec);
-                }
+            final BitSet applicable = LabelSpecificsMatcher.getApplicable(labelSpecifics, node);
+            for (int i = applicable.nextSetBit(0); i >= 0; i = applicable.nextSetBit(i + 1)) {
+                out.add(labelSpecifics[i]);
             }
         }
         return out;
@@ -215,33 +355,94 @@ public class CustomTool extends ToolInstallation implements
     @Symbol("custom")
     public static class DescriptorImpl extends ToolDescriptor<CustomTool> {
 
+        /**
+         * Snapshot of the installations.
+         * It is replaced as a whole when the installations change.
+         */
+        private transient volatile ToolsSnapshot snapshot;
+
         public DescriptorImpl() {
             load();
         }
 
+        @Override
+        public synchronized void load() {
+            super.load();
+            snapshot = new ToolsSnapshot(super.getInstallations());
+        }
+
+        @Override
+        public CustomTool[] getInstallations() {
+            return getSnapshot().getInstallations();
+        }
+
         @Override
         public String getDisplayName() {
             return Messages.CustomTool_DescriptorImpl_DisplayName();
         }
 
         @Override
-        public void setInstallations(CustomTool... installations) {
+        public synchronized void setInstallations(CustomTool... installations) {
+            // Synchronized with load(), so the snapshot always matches the saved installations
             super.setInstallations(installations);
+            snapshot = new ToolsSnapshot(super.getInstallations());
+            InstallationCache.invalidateAll();
+            compileVariables(installations);
+            LabelSpecificsMatcher.invalidateAll();
             save();
         }
 
+        /**
+         * Gets the snapshot of the configured tools.
+         * Builds should resolve all their tools from a single snapshot.
+         * @return Current snapshot
+         * @since 0.9
+         */
+        @Restricted(NoExternalUse.class)
+        public @Nonnull ToolsSnapshot getSnapshot() {
+            ToolsSnapshot current = snapshot;
+            if (current == null) {
+                current = new ToolsSnapshot(super.getInstallations());
+                snapshot = current;
+            }
+            return current;
+        }
+
+        /**
+         * Compiles additional variables of the saved tools, so builds do not parse them.
+         * Invalid variables are reported by builds using the tool.
+         */
+        private static void compileVariables(CustomTool... installations) {
+            VariablesTemplate.invalidateAll();
+            for (CustomTool tool : installations) {
+                try {
+                    tool.getAdditionalVariablesTemplate();
+                    for (LabelSpecifics spec : tool.getLabelSpecifics()) {
+                        spec.getAdditionalVarsTemplate();
+                    }
+                } catch (IOException | IllegalArgumentException ex) {
+                    LOGGER.log(Level.FINE, "Cannot compile additional variables of the tool " + tool.getName(), ex);
+                }
+            }
+        }
+
         /**
          * Gets a {@link CustomTool} by its name.
          * @param name A name of the tool to be retrieved.
          * @return A {@link CustomTool} or null if it has no found
          */
         public @CheckForNull CustomTool byName(String name) {
-            for (CustomTool tool : getInstallations()) {
-                if (tool.getName().equals(name)) {
-                    return tool;
-                }
-            }
-            return null;
+            return getSnapshot().byName(name);
+        }
+
+        /**
+         * Gets tools, which have versions configured.
+         * @return Versioned tools in the configuration order
+         * @since 0.9
+         */
+        @Restricted(NoExternalUse.class)
+        public @Nonnull List<CustomTool> getVersionedTools() {
+            return getSnapshot().getVersionedTools();
         }
 
         @Override
@@ -262,78 +463,168 @@ public class CustomTool extends ToolInstallation implements
      * @throws InterruptedException Operation has been interrupted
      */
     protected @Nonnull PathsList getPaths(@Nonnull Node node) throws IOException, InterruptedException {
-        final String toolHome = getHome();
-        if (toolHome == null) {
-            throw new FileNotFoundException("Cannot retrieve home directory of the custom tool " + getName());
-        }
+        return getPaths(node, Collections.singletonList(this)).get(0);
+    }
 
-        FilePath homePath = new FilePath(node.getChannel(), toolHome);
-        //FIXME: Why?
-        if (exportedPaths == null) {
-            return PathsList.EMPTY;
+    /**
+     * Finds the directories to add to the path for several tools.
+     * All tools are being checked within a single remote call to the node.
+     *
+     * @param node where the tools have been installed
+     * @param tools Installed tools
+     * @return Lists of directories to add to the $PATH. The order is the same as in the tools list
+     *
+     * @throws AbortException Exported paths of one or more tools are misconfigured.
+     *      The message contains errors for all tools
+     * @throws IOException Operation error
+     * @throws InterruptedException Operation has been interrupted
+     * @since 0.9
+     */
+    @Restricted(NoExternalUse.class)
+    public static @Nonnull List<PathsList> getPaths(@Nonnull Node node, @Nonnull List<CustomTool> tools)
+            throws IOException, InterruptedException {
+        final List<PathsRequest> requests = new ArrayList<>(tools.size());
+        for (CustomTool tool : tools) {
+            final String toolHome = tool.getHome();
+            if (toolHome == null) {
+                throw new FileNotFoundException("Cannot retrieve home directory of the custom tool " + tool.getName());
+            }
+            //FIXME: Why?
+            if (tool.exportedPaths != null) {
+                requests.add(new PathsRequest(tool.getAppliedSpecifics(node),
+                        tool.exportedPaths, toolHome));
+            }
         }
-        final List<LabelSpecifics> specs = getAppliedSpecifics(node);
 
-        return homePath.act(new GetPaths(specs, exportedPaths, toolHome));
-    }
+        final List<PathsResult> results;
+        if (requests.isEmpty()) {
+            results = Collections.emptyList();
+        } else {
+            final VirtualChannel channel = node.getChannel();
+            if (channel == null) {
+                throw new IOException("Cannot resolve paths of custom tools, the node "
+                        + node.getDisplayName() + " is offline");
+            }
+            results = channel.call(new GetPaths(requests));
+        }
 
-        private static class GetPaths extends MasterToSlaveFileCallable<PathsList> {
-            private final List<LabelSpecifics> specs;
-            private final @CheckForNull String exportedPaths;
-            private final @CheckForNull String toolHome;
-            GetPaths(List<LabelSpecifics> specs, String exportedPaths, String toolHome) {
-                this.specs = specs;
-                this.exportedPaths = exportedPaths;
-                this.toolHome = toolHome;
+        // Merge results and report all errors at once
+        final List<PathsList> out = new ArrayList<>(tools.size());
+        final StringBuilder errors = new StringBuilder();
+        int resultIndex = 0;
+        for (CustomTool tool : tools) {
+            if (tool.exportedPaths == null) {
+                out.add(PathsList.EMPTY);
+                continue;
             }
-            private void parseLists(String pathList, List<String> target) {
-                String[] items = pathList.split("\\s*,\\s*");
-                for (String item : items) {
-                    if (item.isEmpty()) {
-                        continue;
-                    }
-                    target.add(item);
-                }
+            final PathsResult result = results.get(resultIndex++);
+            if (result.error != null) {
+                errors.append(errors.length() > 0 ? "\n" : "").append(tool.getName()).append(": ").append(result.error);
             }
+            out.add(result.paths != null ? result.paths : PathsList.EMPTY);
+        }
+        if (errors.length() > 0) {
+            throw new AbortException(errors.toString());
+        }
+        return out;
+    }
+
+    /**
+     * Describes paths to be resolved for a single tool.
+     */
+    private static class PathsRequest implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final List<LabelSpecifics> specs;
+        private final @CheckForNull String exportedPaths;
+        private final @Nonnull String toolHome;
+
+        PathsRequest(List<LabelSpecifics> specs, @CheckForNull String exportedPaths, @Nonnull String toolHome) {
+            this.specs = new ArrayList<>(specs);
+            this.exportedPaths = exportedPaths;
+            this.toolHome = toolHome;
+        }
+    }
+
+    /**
+     * Resolved paths or a validation error for a single tool.
+     */
+    private static class PathsResult implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final @CheckForNull PathsList paths;
+        private final @CheckForNull String error;
+
+        PathsResult(@CheckForNull PathsList paths, @CheckForNull String error) {
+            this.paths = paths;
+            this.error = error;
+        }
+    }
+
+    private static class GetPaths extends MasterToSlaveCallable<List<PathsResult>, IOException> {
+        private static final long serialVersionUID = 1L;
 
-            @Override
-            public PathsList invoke(File f, VirtualChannel channel)
-                    throws IOException, InterruptedException {
+        private final List<PathsRequest> requests;
 
-                // Construct output paths
-                List<String> items = new LinkedList<>();
-                if (exportedPaths != null) {
-                    parseLists(exportedPaths, items);
+        GetPaths(List<PathsRequest> requests) {
+            this.requests = requests;
+        }
+
+        private static void parseLists(String pathList, List<String> target) {
+            String[] items = pathList.split("\\s*,\\s*");
+            for (String item : items) {
+                if (item.isEmpty()) {
+                    continue;
                 }
-                for (LabelSpecifics spec : specs) {
-                    final String exportedPathsFromSpec = spec.getExportedPaths();
-                    if (exportedPathsFromSpec != null) {
-                        parseLists(exportedPathsFromSpec, items);
-                    }
+                target.add(item);
+            }
+        }
+
+        @Override
+        public List<PathsResult> call() throws IOException {
+            final List<PathsResult> results = new ArrayList<>(requests.size());
+            for (PathsRequest request : requests) {
+                try {
+                    results.add(new PathsResult(resolve(request), null));
+                } catch (AbortException ex) {
+                    results.add(new PathsResult(null, ex.getMessage()));
                 }
+            }
+            return results;
+        }
 
-                // Resolve exported paths
-                List<String> outList = new LinkedList<>();
-                for (String item : items) {
-                    File file = new File(item);
-                    if (!file.isAbsolute()) {
-                        file = new File(toolHome, item);
-                    }
+        private static PathsList resolve(PathsRequest request) throws IOException {
+            // Construct output paths
+            List<String> items = new LinkedList<>();
+            if (request.exportedPaths != null) {
+                parseLists(request.exportedPaths, items);
+            }
+            for (LabelSpecifics spec : request.specs) {
+                final String exportedPathsFromSpec = spec.getExportedPaths();
+                if (exportedPathsFromSpec != null) {
+                    parseLists(exportedPathsFromSpec, items);
+                }
+            }
 
-                    // Check if directory exists
-                    if (!file.isDirectory() || !file.exists()) {
-                        throw new AbortException("Wrong EXPORTED_PATHS configuration. Can't find "+file.getPath());
-                    }
-                    outList.add(file.getAbsolutePath());
+            // Resolve exported paths
+            List<String> outList = new LinkedList<>();
+            for (String item : items) {
+                File file = new File(item);
+                if (!file.isAbsolute()) {
+                    file = new File(request.toolHome, item);
                 }
 
-                // Resolve home dir
-                if (toolHome == null) {
-                    throw new IOException("Cannot retrieve Tool home directory. Should never happen ant this stage, please file a bug");
+                // Check if directory exists
+                if (!file.isDirectory() || !file.exists()) {
+                    throw new AbortException("Wrong EXPORTED_PATHS configuration. Can't find "+file.getPath());
                 }
-                final File homeDir = new File(toolHome);
-                return new PathsList(outList, homeDir.getAbsolutePath());
+                outList.add(file.getAbsolutePath());
             }
+
+            // Resolve home dir
+            final File homeDir = new File(request.toolHome);
+            return new PathsList(outList, homeDir.getAbsolutePath());
         }
+    }
 
 }
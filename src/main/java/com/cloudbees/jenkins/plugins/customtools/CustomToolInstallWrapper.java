@@ -18,7 +18,6 @@ package com.cloudbees.jenkins.plugins.customtools;
 
 import com.synopsys.arc.jenkinsci.plugins.customtools.CustomToolsLogger;
 import com.synopsys.arc.jenkinsci.plugins.customtools.CustomToolException;
-import com.synopsys.arc.jenkinsci.plugins.customtools.EnvVariablesInjector;
 import com.synopsys.arc.jenkinsci.plugins.customtools.LabelSpecifics;
 import com.synopsys.arc.jenkinsci.plugins.customtools.PathsList;
 import com.synopsys.arc.jenkinsci.plugins.customtools.multiconfig.MulticonfigWrapperOptions;
@@ -29,6 +28,7 @@ import hudson.EnvVars;
 import hudson.Extension;
 import hudson.Launcher;
 import hudson.Proc;
+import hudson.Util;
 import hudson.matrix.MatrixBuild;
 import hudson.model.BuildListener;
 import hudson.model.AbstractBuild;
@@ -36,18 +36,39 @@ import hudson.model.AbstractProject;
 import hudson.model.Computer;
 import hudson.model.Descriptor;
 import hudson.model.Node;
+import hudson.model.Run;
 import hudson.model.Run.RunnerAbortedException;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
 import hudson.tasks.BuildWrapper;
 import hudson.tasks.BuildWrapperDescriptor;
 import hudson.tools.ToolInstallation;
 import java.io.IOException;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import jenkins.plugins.customtools.CustomToolsGlobalConfiguration;
+import jenkins.plugins.customtools.ToolsSnapshot;
+import jenkins.plugins.customtools.install.InstallationCache;
+import jenkins.plugins.customtools.install.InstallationCoordinator;
+import jenkins.plugins.customtools.install.ResolvedInstallation;
+import jenkins.plugins.customtools.install.ToolUsageRegistry;
+import jenkins.plugins.customtools.util.ParallelTasks;
+import jenkins.plugins.customtools.util.envvars.ToolsEnvironment;
+import jenkins.plugins.customtools.util.envvars.VariablesTemplate;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
 /**
  * Installs tools selected by the user. Exports configured paths and a home variable for each tool.
@@ -87,7 +108,21 @@ public class CustomToolInstallWrapper extends BuildWrapper {
         }
 
         public @Nonnull CustomTool toCustomToolValidated() throws CustomToolException {
-            CustomTool tool = toCustomTool();
+            CustomTool.DescriptorImpl tools = ToolInstallation.all().get(CustomTool.DescriptorImpl.class);
+            return toCustomToolValidated(tools != null ? tools.getSnapshot() : null);
+        }
+
+        /**
+         * Gets the tool from the specified configuration snapshot.
+         * @param snapshot Snapshot of the tools configuration
+         * @return Configured tool
+         * @throws CustomToolException The tool is not configured
+         * @since 0.9
+         */
+        @Restricted(NoExternalUse.class)
+        public @Nonnull CustomTool toCustomToolValidated(@CheckForNull ToolsSnapshot snapshot)
+                throws CustomToolException {
+            CustomTool tool = snapshot != null ? snapshot.byName(name) : null;
             if (tool == null) {
                 throw new CustomToolException(
                     Messages.CustomTool_GetToolByName_ErrorMessage(name));
@@ -99,6 +134,23 @@ public class CustomToolInstallWrapper extends BuildWrapper {
     private final @Nonnull SelectedTool[] selectedTools;
     private final @CheckForNull MulticonfigWrapperOptions multiconfigOptions;
     private final boolean convertHomesToUppercase;
+    /**
+     * Maximum number of tools, which are installed in parallel.
+     * 0 means that the global configuration is used.
+     */
+    private int parallelInstallations;
+    /**
+     * If {@code true}, tools are installed in background while the build checks out sources.
+     */
+    private boolean installDuringCheckout;
+
+    /**
+     * Exports of the builds, which install tools in background.
+     * A build may contain several wrappers, hence the exports are kept per wrapper instance.
+     * The map is guarded by its own monitor.
+     */
+    private static final Map<Run<?, ?>, Map<CustomToolInstallWrapper, ExportedTools>> PENDING_EXPORTS =
+            new WeakHashMap<>();
 
     @DataBoundConstructor
     public CustomToolInstallWrapper(SelectedTool[] selectedTools, MulticonfigWrapperOptions multiconfigOptions, boolean convertHomesToUppercase) {
@@ -111,10 +163,51 @@ public class CustomToolInstallWrapper extends BuildWrapper {
         return convertHomesToUppercase;
     }
 
+    /**
+     * Gets the maximum number of parallel installations configured for the job.
+     * @return Number of parallel installations or 0 if the global option should be used
+     * @since 0.9
+     */
+    public int getParallelInstallations() {
+        return parallelInstallations;
+    }
+
+    @DataBoundSetter
+    public void setParallelInstallations(int parallelInstallations) {
+        this.parallelInstallations = Math.max(0, parallelInstallations);
+    }
+
+    /**
+     * Gets the maximum number of parallel installations for the build.
+     * @return Job-specific value if it is set, the global value otherwise
+     * @since 0.9
+     */
+    public int getEffectiveParallelInstallations() {
+        return parallelInstallations > 0 ? parallelInstallations
+                : CustomToolsGlobalConfiguration.get().getMaxParallelInstallations();
+    }
+
+    /**
+     * Checks if tools are installed in background while the build checks out sources.
+     * Processes launched by the checkout do not get the tools environment in this mode.
+     * @return {@code true} if the installation overlaps the checkout
+     * @since 0.9
+     */
+    public boolean isInstallDuringCheckout() {
+        return installDuringCheckout;
+    }
+
+    @DataBoundSetter
+    public void setInstallDuringCheckout(boolean installDuringCheckout) {
+        this.installDuringCheckout = installDuringCheckout;
+    }
+
     @Override
     public Environment setUp(AbstractBuild build, Launcher launcher,
             BuildListener listener) throws IOException, InterruptedException {
 
+        joinInstallation(build, listener);
+
         final EnvVars buildEnv = build.getEnvironment(listener);
         final Node node = build.getBuiltOn();
 
@@ -146,16 +239,13 @@ public class CustomToolInstallWrapper extends BuildWrapper {
      * @return A decorated launcher
      */
     @Override
-    public Launcher decorateLauncher(AbstractBuild build, final Launcher launcher,
+    public Launcher decorateLauncher(final AbstractBuild build, final Launcher launcher,
             BuildListener listener) throws IOException, InterruptedException,
             RunnerAbortedException {
 
-        EnvVars buildEnv = build.getEnvironment(listener);
-        final EnvVars homes = new EnvVars();
-        final EnvVars versions = new EnvVars();
-
-        final PathsList paths = new PathsList();
-        final List<EnvVariablesInjector> additionalVarInjectors = new LinkedList<>();
+        final EnvVars buildEnv = build.getEnvironment(listener);
+        final ExportedTools exported = new ExportedTools(convertHomesToUppercase,
+                CustomToolsGlobalConfiguration.get().isSendEnvironmentDelta());
 
         // Handle multi-configuration build
         if (build instanceof MatrixBuild) {
@@ -171,99 +261,353 @@ public class CustomToolInstallWrapper extends BuildWrapper {
             throw new CustomToolException("Cannot install tools on the deleted node");
         }
 
-        for (SelectedTool selectedToolName : selectedTools) {
-            CustomTool tool = selectedToolName.toCustomToolValidated();
-            CustomToolsLogger.logMessage(listener, tool.getName(), "Starting installation");
-
-            // Check versioning
-            checkVersions(tool, listener, buildEnv, node, versions);
-
-            // This installs the tool if necessary
-            CustomTool installed = tool
-                    .forNode(node, listener)
-                    .forEnvironment(buildEnv)
-                    .forBuildProperties(build.getProject().getProperties());
-
-            try {
-                installed.check();
-            } catch (CustomToolException ex) {
-                throw new AbortException(ex.getMessage());
-            }
-
-            // Handle global options of the tool
-            //TODO: convert to label specifics?
-            final PathsList installedPaths = installed.getPaths(node);
-            installed.correctHome(installedPaths);
-            paths.add(installedPaths);
-            final String additionalVars = installed.getAdditionalVariables();
-            if (additionalVars != null) {
-                additionalVarInjectors.add(EnvVariablesInjector.create(additionalVars));
-            }
-
-            // Handle label-specific options of the tool
-            for (LabelSpecifics spec : installed.getLabelSpecifics()) {
-                if (!spec.appliesTo(node)) {
-                    continue;
-                }
-                CustomToolsLogger.logMessage(listener, installed.getName(), "Label specifics from '"+spec.getLabel()+"' will be applied");
+        // All tools are taken from the same configuration, even if it gets saved while the build starts
+        final CustomTool.DescriptorImpl descriptor = ToolInstallation.all().get(CustomTool.DescriptorImpl.class);
+        final ToolsSnapshot snapshot = descriptor != null ? descriptor.getSnapshot() : null;
+        final long generation = snapshot != null ? snapshot.getGeneration() : 0;
 
-                final String additionalLabelSpecificVars = spec.getAdditionalVars();
-                if (additionalLabelSpecificVars != null) {
-                    additionalVarInjectors.add(EnvVariablesInjector.create(additionalLabelSpecificVars));
-                }
-            }
+        // Check versioning. It may modify the build environment, hence it is not parallelized
+        final List<CustomTool> tools = new ArrayList<>(selectedTools.length);
+        final List<String> versions = new ArrayList<>(selectedTools.length);
+        final List<CustomTool> versionedTools = new ArrayList<>(selectedTools.length);
+        for (SelectedTool selectedToolName : selectedTools) {
+            CustomTool tool = selectedToolName.toCustomToolValidated(snapshot);
+            // The effective version is resolved once and passed to the installation
+            final ToolVersion version = checkVersion(tool, listener, buildEnv, node, exported.versions);
+            final String actualVersion = version != null ? version.getActualVersion() : null;
+            tools.add(tool);
+            versions.add(actualVersion);
+            versionedTools.add(tool.forVersion(actualVersion));
+        }
 
-            CustomToolsLogger.logMessage(listener, installed.getName(), "Tool is installed at "+ installed.getHome());
-            String homeDirVarName = (convertHomesToUppercase ? installed.getName().toUpperCase(Locale.ENGLISH) : installed.getName()) +"_HOME";
-            CustomToolsLogger.logMessage(listener, installed.getName(), "Setting "+ homeDirVarName+"="+installed.getHome());
-            homes.put(homeDirVarName, installed.getHome());
+        // Prevent eviction of the installations while the build runs
+        ToolUsageRegistry.acquire(build, node, versionedTools);
+
+        if (installDuringCheckout && !(build instanceof MatrixBuild)) {
+            // Installation is joined by setUp() after the checkout
+            CustomToolsLogger.logMessage(listener, "Installing tools in background during the checkout");
+            exported.installation = Computer.threadPoolForRemoting.submit(
+                    () -> resolveInstallations(build, node, tools, versions, generation, buildEnv, listener));
+            putPendingExport(build, exported);
+        } else {
+            exported.export(resolveInstallations(build, node, tools, versions, generation, buildEnv, listener),
+                    node, listener);
         }
 
         return new Launcher.DecoratedLauncher(launcher) {
             @Override
             @SuppressFBWarnings("DCN_NULLPOINTER_EXCEPTION")
             public Proc launch(ProcStarter starter) throws IOException {
-                EnvVars vars;
+                if (!exported.ready) {
+                    if (exported.joined) {
+                        // The build must not silently run without the tools
+                        throw new IOException("Custom tools have not been installed, the process cannot be launched");
+                    }
+                    // Tools are still being installed, the checkout runs without them
+                    return getInner().launch(starter);
+                }
+
+                String[] envs;
                 try { // Dirty hack, which allows to avoid NPEs in Launcher::envs()
-                    vars = toEnvVars(starter.envs());
+                    envs = starter.envs();
                 } catch (NullPointerException npe) {
-                    vars = new EnvVars();
+                    envs = null;
+                }
+
+                final String[] vars;
+                try {
+                    vars = exported.overlay(envs, node, isUnix());
                 } catch (InterruptedException x) {
                     throw new IOException(x);
                 }
+                return getInner().launch(starter.envs(vars));
+            }
+        };
+    }
 
-                // Inject paths
-                final String injectedPaths = paths.toListString();
-                if (injectedPaths != null) {
-                    vars.override("PATH+", injectedPaths);
-                }
+    private void putPendingExport(@Nonnull Run<?, ?> build, @Nonnull ExportedTools exported) {
+        synchronized (PENDING_EXPORTS) {
+            PENDING_EXPORTS.computeIfAbsent(build, k -> new IdentityHashMap<>()).put(this, exported);
+        }
+    }
+
+    private @CheckForNull ExportedTools removePendingExport(@Nonnull Run<?, ?> build) {
+        synchronized (PENDING_EXPORTS) {
+            final Map<CustomToolInstallWrapper, ExportedTools> exports = PENDING_EXPORTS.get(build);
+            if (exports == null) {
+                return null;
+            }
+            final ExportedTools exported = exports.remove(this);
+            if (exports.isEmpty()) {
+                PENDING_EXPORTS.remove(build);
+            }
+            return exported;
+        }
+    }
 
-                // Inject additional variables
-                vars.putAll(homes);
-                vars.putAll(versions);
-                for (EnvVariablesInjector injector : additionalVarInjectors) {
-                    injector.injectVariables(vars);
+    /**
+     * Waits for the installation started in background by {@link #decorateLauncher}.
+     */
+    private void joinInstallation(@Nonnull AbstractBuild<?, ?> build, @Nonnull BuildListener listener)
+            throws IOException, InterruptedException {
+        final ExportedTools exported = removePendingExport(build);
+        final Future<List<ResolvedInstallation>> installation = exported != null ? exported.installation : null;
+        if (installation == null) {
+            return;
+        }
+        // The checkout is over, processes must not be launched without the tools anymore
+        exported.joined = true;
+
+        final Node node = build.getBuiltOn();
+        if (node == null) {
+            installation.cancel(true);
+            throw new CustomToolException("Cannot install tools on the deleted node");
+        }
+        CustomToolsLogger.logMessage(listener, "Waiting for the background installation of tools");
+        final List<ResolvedInstallation> installations;
+        try {
+            installations = installation.get();
+        } catch (InterruptedException ex) {
+            installation.cancel(true);
+            throw ex;
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            }
+            throw new IOException("Failed to install tools", cause);
+        }
+        exported.export(installations, node, listener);
+    }
+
+    /**
+     * Environment exported by the installed tools.
+     * Launched processes get it once the installation completes.
+     */
+    private static final class ExportedTools {
+        private final boolean convertHomesToUppercase;
+        /**
+         * If {@code true}, variables matching the node environment are not sent to the node.
+         */
+        private final boolean sendDelta;
+        private final EnvVars versions = new EnvVars();
+        /**
+         * Installation running in background, if any.
+         */
+        private @CheckForNull Future<List<ResolvedInstallation>> installation;
+        /**
+         * Overlay of the installed tools. It is set before {@link #ready}.
+         */
+        private @CheckForNull ToolsEnvironment overlay;
+        private volatile boolean ready;
+        /**
+         * {@code true} once the build has started waiting for the background installation.
+         */
+        private volatile boolean joined;
+
+        /**
+         * Environment of the node, it is retrieved once per build.
+         */
+        private @CheckForNull EnvVars nodeEnvironment;
+        /**
+         * Process environment, for which {@link #lastEnvironment} has been computed.
+         */
+        private @CheckForNull String[] lastEnvs;
+        private @CheckForNull String[] lastEnvironment;
+
+        ExportedTools(boolean convertHomesToUppercase, boolean sendDelta) {
+            this.convertHomesToUppercase = convertHomesToUppercase;
+            this.sendDelta = sendDelta;
+        }
+
+        void export(@Nonnull List<ResolvedInstallation> installations, @Nonnull Node node,
+                @Nonnull BuildListener listener) throws IOException {
+            final PathsList paths = new PathsList();
+            final EnvVars variables = new EnvVars();
+            final List<VariablesTemplate> additionalVariables = new ArrayList<>();
+
+            // Export tools in the order of their selection
+            for (ResolvedInstallation installation : installations) {
+                final CustomTool installed = installation.getTool();
+
+                // Handle global options of the tool
+                //TODO: convert to label specifics?
+                paths.add(installation.getPaths());
+                final VariablesTemplate additionalVars = installed.getAdditionalVariablesTemplate();
+                if (additionalVars != null) {
+                    additionalVariables.add(additionalVars);
                 }
 
-                // Override paths to prevent JENKINS-20560
-                if (vars.containsKey("PATH")) {
-                    final String overallPaths=vars.get("PATH");
-                    vars.remove("PATH");
-                    vars.put("PATH+", overallPaths);
+                // Handle label-specific options of the tool
+                for (LabelSpecifics spec : installed.getAppliedSpecifics(node)) {
+                    CustomToolsLogger.logMessage(listener, installed.getName(), "Label specifics from '"+spec.getLabel()+"' will be applied");
+
+                    final VariablesTemplate additionalLabelSpecificVars = spec.getAdditionalVarsTemplate();
+                    if (additionalLabelSpecificVars != null) {
+                        additionalVariables.add(additionalLabelSpecificVars);
+                    }
                 }
 
-                return getInner().launch(starter.envs(vars));
+                CustomToolsLogger.logMessage(listener, installed.getName(), "Tool is installed at "+ installed.getHome());
+                String homeDirVarName = (convertHomesToUppercase ? installed.getName().toUpperCase(Locale.ENGLISH) : installed.getName()) +"_HOME";
+                CustomToolsLogger.logMessage(listener, installed.getName(), "Setting "+ homeDirVarName+"="+installed.getHome());
+                variables.put(homeDirVarName, installed.getHome());
+            }
+            variables.putAll(versions);
+
+            overlay = ToolsEnvironment.of(paths.toListString(), variables, additionalVariables);
+            ready = true;
+        }
+
+        /**
+         * Gets the environment of the launched process with the exported tools.
+         * The node environment, the environment of the process and the shared tools overlay
+         * are merged when the process is started.
+         * Consecutive launches usually pass the same environment,
+         * so the result is reused until the environment of the build changes.
+         * @param envs Environment of the process or {@code null} if it cannot be retrieved
+         * @param node Node, on which the process is being launched
+         * @param isUnix {@code true} if the node runs a Unix-like operating system
+         * @return Environment with the tools. It must not be modified
+         */
+        synchronized @Nonnull String[] overlay(@CheckForNull String[] envs, @Nonnull Node node, boolean isUnix)
+                throws IOException, InterruptedException {
+            if (lastEnvironment != null && Arrays.equals(envs, lastEnvs)) {
+                return lastEnvironment;
             }
 
-            private EnvVars toEnvVars(String[] envs) throws IOException, InterruptedException {
-                Computer computer = node.toComputer();
-                EnvVars vars = computer != null ? computer.getEnvironment() : new EnvVars();
-                for (String line : envs) {
-                    vars.addLine(line);
+            final EnvVars vars = envs != null ? toEnvVars(envs, node) : new EnvVars();
+            if (overlay != null) {
+                overlay.applyTo(vars);
+            }
+
+            lastEnvs = envs != null ? envs.clone() : null;
+            lastEnvironment = Util.mapToEnv(sendDelta && nodeEnvironment != null
+                    ? delta(vars, nodeEnvironment, isUnix) : vars);
+            return lastEnvironment;
+        }
+
+        /**
+         * Removes variables, which the node process already has.
+         * The launcher on the node merges the received variables with its own environment.
+         * {@code PATH+} is reduced to the entries, which are prepended to the node's {@code PATH}.
+         */
+        private static @Nonnull EnvVars delta(@Nonnull EnvVars vars, @Nonnull EnvVars nodeEnvironment, boolean isUnix) {
+            final EnvVars delta = new EnvVars();
+            for (Map.Entry<String, String> entry : vars.entrySet()) {
+                if (!entry.getValue().equals(nodeEnvironment.get(entry.getKey()))) {
+                    delta.put(entry.getKey(), entry.getValue());
                 }
-                return vars;
             }
-        };
+
+            final String paths = delta.get("PATH+");
+            final String nodePaths = nodeEnvironment.get("PATH");
+            if (paths != null && nodePaths != null) {
+                final String nodeSuffix = (isUnix ? ':' : ';') + nodePaths;
+                final String prepended = paths.endsWith(nodeSuffix)
+                        ? paths.substring(0, paths.length() - nodeSuffix.length()) : null;
+                if (paths.equals(nodePaths) || (prepended != null && prepended.isEmpty())) {
+                    delta.remove("PATH+");
+                } else if (prepended != null) {
+                    delta.put("PATH+", prepended);
+                }
+            }
+            return delta;
+        }
+
+        private @Nonnull EnvVars toEnvVars(@Nonnull String[] envs, @Nonnull Node node)
+                throws IOException, InterruptedException {
+            if (nodeEnvironment == null) {
+                final Computer computer = node.toComputer();
+                nodeEnvironment = computer != null ? computer.getEnvironment() : new EnvVars();
+            }
+            final EnvVars vars = new EnvVars(nodeEnvironment);
+            for (String line : envs) {
+                vars.addLine(line);
+            }
+            return vars;
+        }
+    }
+
+    /**
+     * Installs tools on the node and resolves their paths.
+     * @param versions Effective versions of the tools, {@code null} for tools without versions
+     * @param generation Generation of the configuration snapshot, which the tools have been taken from
+     * @return Resolved installations in the order of the tools list
+     */
+    private @Nonnull List<ResolvedInstallation> resolveInstallations(@Nonnull AbstractBuild build,
+            @Nonnull Node node, @Nonnull List<CustomTool> tools, @Nonnull List<String> versions, long generation,
+            @Nonnull EnvVars buildEnv, @Nonnull BuildListener listener) throws IOException, InterruptedException {
+        final boolean useCache = CustomToolsGlobalConfiguration.get().isCacheInstallations();
+        final ResolvedInstallation[] resolved = new ResolvedInstallation[tools.size()];
+        final String[] cacheKeys = new String[tools.size()];
+        final List<Integer> missing = new ArrayList<>(tools.size());
+        if (useCache) {
+            for (int i = 0; i < tools.size(); i++) {
+                cacheKeys[i] = InstallationCache.keyOf(generation, tools.get(i), versions.get(i), node, buildEnv);
+                resolved[i] = InstallationCache.get(node, cacheKeys[i]);
+            }
+            InstallationCache.verify(node, cacheKeys, resolved);
+        }
+        for (int i = 0; i < tools.size(); i++) {
+            if (resolved[i] != null) {
+                CustomToolsLogger.logMessage(listener, tools.get(i).getName(), "Using the installation cached for the node");
+            } else {
+                missing.add(i);
+            }
+        }
+        if (missing.isEmpty()) {
+            return Arrays.asList(resolved);
+        }
+
+        // Install tools. Independent tools may be installed in parallel
+        final List<Callable<CustomTool>> installers = new ArrayList<>(missing.size());
+        for (int index : missing) {
+            final CustomTool tool = tools.get(index);
+            final String version = versions.get(index);
+            installers.add(() -> installTool(tool, version, node, buildEnv, listener));
+        }
+        final List<CustomTool> installedTools = ParallelTasks.invokeAll(installers,
+                getEffectiveParallelInstallations(), "CustomTools installer for " + build.getFullDisplayName());
+
+        // Resolve exported paths of all tools within a single call to the node
+        final List<PathsList> installedPaths = CustomTool.getPaths(node, installedTools);
+        for (int i = 0; i < missing.size(); i++) {
+            final int index = missing.get(i);
+            final CustomTool installed = installedTools.get(i);
+            installed.correctHome(installedPaths.get(i));
+            resolved[index] = new ResolvedInstallation(installed, installedPaths.get(i));
+            if (useCache) {
+                InstallationCache.put(node, cacheKeys[index], resolved[index]);
+            }
+        }
+        return Arrays.asList(resolved);
+    }
+
+    /**
+     * Installs the tool on the node.
+     * The method may be invoked concurrently for different tools of the build.
+     * @param version Effective version of the tool, {@code null} if the tool has no versions
+     */
+    private @Nonnull CustomTool installTool(@Nonnull CustomTool tool, @CheckForNull String version,
+            @Nonnull Node node, @Nonnull EnvVars buildEnv, @Nonnull BuildListener listener)
+            throws IOException, InterruptedException {
+        CustomToolsLogger.logMessage(listener, tool.getName(), "Starting installation");
+
+        // This installs the tool if necessary
+        final String installedHome = InstallationCoordinator.install(tool, node, version, listener);
+        // Node and build variables are bound at once, so the build creates a single copy of the tool
+        CustomTool installed = tool.getPlan().bind(node, installedHome, buildEnv);
+
+        try {
+            installed.check();
+        } catch (CustomToolException ex) {
+            throw new AbortException(ex.getMessage());
+        }
+        return installed;
     }
 
     /**
@@ -288,9 +632,19 @@ public class CustomToolInstallWrapper extends BuildWrapper {
      */
     public void checkVersions (@Nonnull CustomTool tool, @Nonnull BuildListener listener,
             @Nonnull EnvVars buildEnv, @Nonnull Node node, @Nonnull EnvVars target) throws CustomToolException {
+        checkVersion(tool, listener, buildEnv, node, target);
+    }
+
+    /**
+     * Checks versions like {@link #checkVersions}.
+     * @return Effective version of the tool, {@code null} if the tool has no versions
+     */
+    private @CheckForNull ToolVersion checkVersion(@Nonnull CustomTool tool, @Nonnull BuildListener listener,
+            @Nonnull EnvVars buildEnv, @Nonnull Node node, @Nonnull EnvVars target) throws CustomToolException {
         // Check version
+        ToolVersion version = null;
         if (tool.hasVersions()) {
-            ToolVersion version = ToolVersion.getEffectiveToolVersion(tool, buildEnv, node);
+            version = ToolVersion.getEffectiveToolVersion(tool, buildEnv, node);
             if (version == null) {
                 CustomToolsLogger.logMessage(listener, tool.getName(), "Error: No version has been specified, no default version. Failing the build...");
                 throw new CustomToolException("Version has not been specified for the "+tool.getName());
@@ -306,6 +660,7 @@ public class CustomToolInstallWrapper extends BuildWrapper {
                 buildEnv.addLine(envStr);
             }
         }
+        return version;
     }
 
     @Override
@@ -331,6 +686,30 @@ public class CustomToolInstallWrapper extends BuildWrapper {
         return multiconfigOptions != null ? multiconfigOptions : MulticonfigWrapperOptions.DEFAULT;
     }
 
+    /**
+     * Cancels background installations, which have not been joined by builds.
+     * It happens when the checkout fails or the build gets aborted.
+     */
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static class PendingInstallationCanceller extends RunListener<Run<?, ?>> {
+        @Override
+        public void onCompleted(Run<?, ?> run, TaskListener listener) {
+            final Map<CustomToolInstallWrapper, ExportedTools> exports;
+            synchronized (PENDING_EXPORTS) {
+                exports = PENDING_EXPORTS.remove(run);
+            }
+            if (exports == null) {
+                return;
+            }
+            for (ExportedTools exported : exports.values()) {
+                if (exported.installation != null && exported.installation.cancel(true)) {
+                    listener.getLogger().println(CustomToolsLogger.LOG_PREFIX + "Cancelled the background installation of tools");
+                }
+            }
+        }
+    }
+
     @Extension
     public static final DescriptorImpl DESCRIPTOR = new DescriptorImpl();
 
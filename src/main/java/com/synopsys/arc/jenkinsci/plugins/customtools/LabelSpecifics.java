@@ -22,11 +22,15 @@ import hudson.model.AbstractDescribableImpl;
 import hudson.model.Descriptor;
 import hudson.model.Label;
 import hudson.model.Node;
+import java.io.IOException;
 import java.io.Serializable;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import jenkins.model.Jenkins;
 import jenkins.plugins.customtools.util.envvars.VariablesSubstitutionHelper;
+import jenkins.plugins.customtools.util.envvars.VariablesTemplate;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 /**
@@ -39,6 +43,10 @@ public class LabelSpecifics extends AbstractDescribableImpl<LabelSpecifics> impl
     private final @CheckForNull String label;
     private final @CheckForNull String additionalVars;
     private final @CheckForNull String exportedPaths;
+    /**
+     * Compiled form of {@link #additionalVars}.
+     */
+    private transient volatile VariablesTemplate additionalVarsTemplate;
 
     @DataBoundConstructor
     public LabelSpecifics(@CheckForNull String label, @CheckForNull String additionalVars, @CheckForNull String exportedPaths) {
@@ -51,6 +59,25 @@ public class LabelSpecifics extends AbstractDescribableImpl<LabelSpecifics> impl
         return additionalVars;
     }
 
+    /**
+     * Gets the compiled additional variables.
+     * @return Compiled variables or {@code null} if there is no additional variables
+     * @throws IOException Cannot parse additional variables
+     * @since 0.9
+     */
+    @Restricted(NoExternalUse.class)
+    public @CheckForNull VariablesTemplate getAdditionalVarsTemplate() throws IOException {
+        if (additionalVars == null) {
+            return null;
+        }
+        VariablesTemplate template = additionalVarsTemplate;
+        if (template == null) {
+            template = VariablesTemplate.compile(additionalVars);
+            additionalVarsTemplate = template;
+        }
+        return template;
+    }
+
      public boolean hasAdditionalVars() {
         return additionalVars != null;
     }
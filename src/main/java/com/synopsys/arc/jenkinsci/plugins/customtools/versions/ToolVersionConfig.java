@@ -23,6 +23,7 @@ import hudson.model.Descriptor;
 import java.io.Serializable;
 import javax.annotation.Nonnull;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
 /**
  * Class implements support of versions for custom tools.
@@ -34,6 +35,10 @@ public class ToolVersionConfig extends AbstractDescribableImpl<ToolVersionConfig
 
     public static final ToolVersionConfig DEFAULT = null;
     private final @Nonnull ExtendedChoiceParameterDefinition versionsListSource;
+    /**
+     * If {@code true}, each version of the tool is installed to its own home directory.
+     */
+    private boolean versionedHomes;
 
     @DataBoundConstructor
     public ToolVersionConfig(@Nonnull ExtendedChoiceParameterDefinition versionsListSource) {
@@ -44,6 +49,20 @@ public class ToolVersionConfig extends AbstractDescribableImpl<ToolVersionConfig
         return versionsListSource;
     }
 
+    /**
+     * Checks if each version of the tool is installed to its own home directory.
+     * @return {@code true} if installations are keyed by the tool version
+     * @since 0.9
+     */
+    public boolean isVersionedHomes() {
+        return versionedHomes;
+    }
+
+    @DataBoundSetter
+    public void setVersionedHomes(boolean versionedHomes) {
+        this.versionedHomes = versionedHomes;
+    }
+
     @Extension
     public static class DescriptorImpl extends Descriptor<ToolVersionConfig> {
         @Override
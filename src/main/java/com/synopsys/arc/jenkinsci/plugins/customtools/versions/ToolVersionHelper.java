@@ -57,14 +57,6 @@ public class ToolVersionHelper {
      */
     public static @Nonnull List<CustomTool> getAllVersionedTools() {
         CustomTool.DescriptorImpl tools = ToolInstallation.all().get(CustomTool.DescriptorImpl.class);
-        List<CustomTool> res = new LinkedList<>();
-        if (tools != null ) {
-            for (CustomTool tool : tools.getInstallations()) {
-                if (tool.hasVersions()) {
-                    res.add(tool);
-                }
-            }
-        }
-        return res;
+        return tools != null ? new LinkedList<>(tools.getVersionedTools()) : new LinkedList<CustomTool>();
     }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools;
+
+import hudson.Extension;
+import hudson.model.Node;
+import hudson.slaves.NodeProperty;
+import hudson.slaves.NodePropertyDescriptor;
+import hudson.util.FormValidation;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.QueryParameter;
+
+/**
+ * Limits the disk space occupied by custom tools on the node.
+ * Least recently used installations are evicted once the limit is exceeded.
+ * @since 0.9
+ */
+public class CustomToolsDiskQuota extends NodeProperty<Node> {
+
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    private final long maxSizeMB;
+
+    @DataBoundConstructor
+    public CustomToolsDiskQuota(long maxSizeMB) {
+        this.maxSizeMB = Math.max(0, maxSizeMB);
+    }
+
+    /**
+     * Gets the high watermark of the disk space used by custom tools.
+     * @return Size in megabytes
+     */
+    public long getMaxSizeMB() {
+        return maxSizeMB;
+    }
+
+    public long getMaxSizeBytes() {
+        return maxSizeMB * MEGABYTE;
+    }
+
+    @Extension
+    @Symbol("customToolsDiskQuota")
+    public static class DescriptorImpl extends NodePropertyDescriptor {
+
+        @Override
+        public String getDisplayName() {
+            return Messages.CustomToolsDiskQuota_DisplayName();
+        }
+
+        public FormValidation doCheckMaxSizeMB(@QueryParameter long value) {
+            return value > 0 ? FormValidation.ok() : FormValidation.error(Messages.CustomToolsDiskQuota_PositiveSize());
+        }
+    }
+}
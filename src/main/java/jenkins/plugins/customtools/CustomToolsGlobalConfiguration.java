@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.Util;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.model.GlobalConfiguration;
+import jenkins.plugins.customtools.install.InstallationCache;
+import net.sf.json.JSONObject;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.StaplerRequest;
+
+/**
+ * Global options of the Custom Tools plugin.
+ * @since 0.9
+ */
+@Extension
+@Symbol("customTools")
+public class CustomToolsGlobalConfiguration extends GlobalConfiguration {
+
+    /**
+     * Default number of tools, which may be installed concurrently within a build.
+     */
+    public static final int DEFAULT_MAX_PARALLEL_INSTALLATIONS = 1;
+
+    private int maxParallelInstallations = DEFAULT_MAX_PARALLEL_INSTALLATIONS;
+    private boolean cacheInstallations;
+    private boolean skipUpToDateInstallations;
+    private boolean prefetchTools;
+    private @CheckForNull String prefetchedToolNames;
+    private boolean sendEnvironmentDelta;
+
+    public CustomToolsGlobalConfiguration() {
+        load();
+    }
+
+    public static @Nonnull CustomToolsGlobalConfiguration get() {
+        return ExtensionList.lookupSingleton(CustomToolsGlobalConfiguration.class);
+    }
+
+    @Override
+    public boolean configure(StaplerRequest req, JSONObject json) throws FormException {
+        // Setters do not persist the configuration, it is saved once for the whole form
+        req.bindJSON(this, json);
+        save();
+        return true;
+    }
+
+    /**
+     * Gets the maximum number of tools, which may be installed in parallel by a build.
+     * @return Number of parallel installations. 1 means sequential installation
+     */
+    public int getMaxParallelInstallations() {
+        return Math.max(1, maxParallelInstallations);
+    }
+
+    @DataBoundSetter
+    public void setMaxParallelInstallations(int maxParallelInstallations) {
+        this.maxParallelInstallations = Math.max(1, maxParallelInstallations);
+    }
+
+    /**
+     * Checks if installations resolved on agents should be cached between builds.
+     * @return {@code true} if warm builds skip installers and path checks
+     */
+    public boolean isCacheInstallations() {
+        return cacheInstallations;
+    }
+
+    @DataBoundSetter
+    public void setCacheInstallations(boolean cacheInstallations) {
+        this.cacheInstallations = cacheInstallations;
+        if (!cacheInstallations) {
+            InstallationCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Checks if installers should be skipped when the installation manifest on the node
+     * matches the tool configuration.
+     * @return {@code true} if installation manifests are being used
+     */
+    public boolean isSkipUpToDateInstallations() {
+        return skipUpToDateInstallations;
+    }
+
+    @DataBoundSetter
+    public void setSkipUpToDateInstallations(boolean skipUpToDateInstallations) {
+        this.skipUpToDateInstallations = skipUpToDateInstallations;
+    }
+
+    /**
+     * Checks if tools should be installed in background once an agent connects.
+     * @return {@code true} if prefetching is enabled
+     */
+    public boolean isPrefetchTools() {
+        return prefetchTools;
+    }
+
+    @DataBoundSetter
+    public void setPrefetchTools(boolean prefetchTools) {
+        this.prefetchTools = prefetchTools;
+    }
+
+    /**
+     * Gets names of the tools to be prefetched.
+     * @return Comma-separated list of tool names. Empty string means that
+     *      tools with label specifics matching the agent are prefetched
+     */
+    public @Nonnull String getPrefetchedToolNames() {
+        return prefetchedToolNames != null ? prefetchedToolNames : "";
+    }
+
+    @DataBoundSetter
+    public void setPrefetchedToolNames(@CheckForNull String prefetchedToolNames) {
+        this.prefetchedToolNames = Util.fixEmptyAndTrim(prefetchedToolNames);
+    }
+
+    /**
+     * Checks if launched processes should only get the variables, which differ from the agent environment.
+     * Agents merge the received variables with their own environment.
+     * @return {@code true} if only the difference is sent to agents
+     */
+    public boolean isSendEnvironmentDelta() {
+        return sendEnvironmentDelta;
+    }
+
+    @DataBoundSetter
+    public void setSendEnvironmentDelta(boolean sendEnvironmentDelta) {
+        this.sendEnvironmentDelta = sendEnvironmentDelta;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Immutable snapshot of the configured custom tools.
+ * A new snapshot with a higher generation is created each time the tools configuration changes,
+ * so builds may use a consistent set of tools without locking,
+ * and caches may use the generation to detect outdated entries.
+ * @since 0.9
+ */
+@Restricted(NoExternalUse.class)
+public final class ToolsSnapshot {
+
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+
+    private final long generation;
+    private final @Nonnull CustomTool[] installations;
+    private final @Nonnull Map<String, CustomTool> byName;
+    private final @Nonnull List<CustomTool> versioned;
+
+    /**
+     * Creates a snapshot with a new generation.
+     * @param installations Configured tools
+     */
+    public ToolsSnapshot(@Nonnull CustomTool[] installations) {
+        this.generation = GENERATIONS.incrementAndGet();
+        this.installations = installations.clone();
+        final Map<String, CustomTool> names = new HashMap<>(installations.length * 2);
+        final List<CustomTool> versionedTools = new ArrayList<>();
+        for (CustomTool tool : installations) {
+            // The first tool wins if names are duplicated
+            names.putIfAbsent(tool.getName(), tool);
+            if (tool.hasVersions()) {
+                versionedTools.add(tool);
+            }
+        }
+        this.byName = Collections.unmodifiableMap(names);
+        this.versioned = Collections.unmodifiableList(versionedTools);
+    }
+
+    /**
+     * Gets the generation of the snapshot.
+     * @return Generation, which is incremented on each configuration change
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the configured tools.
+     * @return Copy of the tools array
+     */
+    public @Nonnull CustomTool[] getInstallations() {
+        return installations.clone();
+    }
+
+    /**
+     * Gets the tool by its name.
+     * @param name Name of the tool
+     * @return Tool or {@code null} if it is not configured
+     */
+    public @CheckForNull CustomTool byName(@CheckForNull String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * Gets tools, which have versions configured.
+     * @return Versioned tools in the configuration order
+     */
+    public @Nonnull List<CustomTool> getVersionedTools() {
+        return versioned;
+    }
+}
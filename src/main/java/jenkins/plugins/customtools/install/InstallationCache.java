@@ -0,0 +1,217 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.install;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import com.synopsys.arc.jenkinsci.plugins.customtools.LabelSpecifics;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.slaves.ComputerListener;
+import hudson.slaves.OfflineCause;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.plugins.customtools.util.envvars.VariablesSubstitutionHelper;
+import jenkins.security.MasterToSlaveCallable;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * In-memory cache of tools, which have been installed and resolved on agents.
+ * Entries are bound to the channel of the agent, so they get discarded once the agent reconnects.
+ * The whole cache is invalidated when the tool configuration is saved.
+ * Homes of cached installations are checked before use, so deleted homes get installed again.
+ * Keys include the generation of the configuration snapshot,
+ * so installations resolved by builds started before the save never match newer tools.
+ * @since 0.9
+ */
+@Restricted(NoExternalUse.class)
+public class InstallationCache {
+
+    private static final char SEPARATOR = '\0';
+
+    private static final Map<String, NodeEntries> CACHE = new ConcurrentHashMap<>();
+
+    private InstallationCache() {}
+
+    /**
+     * Gets the cache key of the tool for the build.
+     * The key includes the tool configuration and all strings, which are substituted for the node and the build.
+     * @param generation Generation of the configuration snapshot, which the tool has been taken from
+     * @param tool Tool from the global configuration
+     * @param version Effective version of the tool, {@code null} if the tool has no versions
+     * @param node Node, where the build runs
+     * @param buildEnv Build environment
+     * @return Cache key
+     */
+    public static @Nonnull String keyOf(long generation, @Nonnull CustomTool tool, @CheckForNull String version,
+            @Nonnull Node node, @Nonnull EnvVars buildEnv) {
+        final StringBuilder key = new StringBuilder(Long.toString(generation));
+        key.append(SEPARATOR).append(tool.getName());
+        key.append(SEPARATOR).append(tool.getConfigFingerprint());
+        key.append(SEPARATOR).append(version);
+        appendResolved(key, VariablesSubstitutionHelper.PATH, tool.getHome(), node, buildEnv);
+        appendResolved(key, VariablesSubstitutionHelper.PATH, tool.getExportedPaths(), node, buildEnv);
+        appendResolved(key, VariablesSubstitutionHelper.PROP_FILE, tool.getAdditionalVariables(), node, buildEnv);
+        for (LabelSpecifics spec : tool.getAppliedSpecifics(node)) {
+            key.append(SEPARATOR).append(spec.getLabel());
+            appendResolved(key, VariablesSubstitutionHelper.PATH, spec.getExportedPaths(), node, buildEnv);
+            appendResolved(key, VariablesSubstitutionHelper.PROP_FILE, spec.getAdditionalVars(), node, buildEnv);
+        }
+        return key.toString();
+    }
+
+    private static void appendResolved(@Nonnull StringBuilder key, @Nonnull VariablesSubstitutionHelper helper,
+            @CheckForNull String value, @Nonnull Node node, @Nonnull EnvVars buildEnv) {
+        key.append(SEPARATOR).append(helper.resolveVariable(helper.resolveVariable(value, node), buildEnv));
+    }
+
+    /**
+     * Gets a cached installation.
+     * @param node Node, where the build runs
+     * @param key Cache key
+     * @return Cached installation or null if it is missing
+     */
+    public static @CheckForNull ResolvedInstallation get(@Nonnull Node node, @Nonnull String key) {
+        final VirtualChannel channel = node.getChannel();
+        final NodeEntries entries = CACHE.get(node.getNodeName());
+        if (channel == null || entries == null || entries.channel.get() != channel) {
+            return null;
+        }
+        return entries.installations.get(key);
+    }
+
+    /**
+     * Checks that homes of cached installations still exist on the node.
+     * Homes may be deleted outside of Jenkins, or links to the tool store may become dangling.
+     * All homes are checked within a single call to the node.
+     * Entries with missing homes are removed from the cache.
+     * @param node Node, where the build runs
+     * @param keys Cache keys
+     * @param installations Cached installations. Missing installations are replaced by {@code null}.
+     * @throws IOException Operation error
+     * @throws InterruptedException Operation has been interrupted
+     */
+    public static void verify(@Nonnull Node node, @Nonnull String[] keys,
+            @Nonnull ResolvedInstallation[] installations) throws IOException, InterruptedException {
+        final VirtualChannel channel = node.getChannel();
+        final List<String> homes = new ArrayList<>(installations.length);
+        for (ResolvedInstallation installation : installations) {
+            homes.add(installation != null ? installation.getTool().getHome() : null);
+        }
+        if (channel == null || homes.stream().noneMatch(Objects::nonNull)) {
+            return;
+        }
+        final boolean[] exist = channel.call(new HomesExist(homes));
+        final NodeEntries entries = CACHE.get(node.getNodeName());
+        for (int i = 0; i < installations.length; i++) {
+            if (homes.get(i) != null && !exist[i]) {
+                installations[i] = null;
+                if (entries != null) {
+                    entries.installations.remove(keys[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts the installation to the cache.
+     * @param node Node, where the tool has been installed
+     * @param key Cache key
+     * @param installation Installation
+     */
+    public static void put(@Nonnull Node node, @Nonnull String key, @Nonnull ResolvedInstallation installation) {
+        final VirtualChannel channel = node.getChannel();
+        if (channel == null) {
+            return;
+        }
+        final NodeEntries entries = CACHE.compute(node.getNodeName(),
+                (name, existing) -> existing != null && existing.channel.get() == channel ? existing : new NodeEntries(channel));
+        entries.installations.put(key, installation);
+    }
+
+    /**
+     * Invalidates cached installations of the node.
+     * @param nodeName Name of the node
+     */
+    public static void invalidate(@Nonnull String nodeName) {
+        CACHE.remove(nodeName);
+    }
+
+    /**
+     * Invalidates all cached installations.
+     */
+    public static void invalidateAll() {
+        CACHE.clear();
+    }
+
+    private static class NodeEntries {
+        private final WeakReference<VirtualChannel> channel;
+        private final Map<String, ResolvedInstallation> installations = new ConcurrentHashMap<>();
+
+        NodeEntries(@Nonnull VirtualChannel channel) {
+            this.channel = new WeakReference<>(channel);
+        }
+    }
+
+    private static class HomesExist extends MasterToSlaveCallable<boolean[], IOException> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> homes;
+
+        HomesExist(List<String> homes) {
+            this.homes = homes;
+        }
+
+        @Override
+        public boolean[] call() throws IOException {
+            final boolean[] exist = new boolean[homes.size()];
+            for (int i = 0; i < exist.length; i++) {
+                // Links are followed, so dangling links are reported as missing
+                exist[i] = homes.get(i) != null && new File(homes.get(i)).isDirectory();
+            }
+            return exist;
+        }
+    }
+
+    /**
+     * Drops cached installations when the agent connects or disconnects.
+     */
+    @Extension
+    public static class ComputerListenerImpl extends ComputerListener {
+
+        @Override
+        public void onOnline(Computer c, TaskListener listener) {
+            invalidate(c.getName());
+        }
+
+        @Override
+        public void onOffline(@Nonnull Computer c, @CheckForNull OfflineCause cause) {
+            invalidate(c.getName());
+        }
+    }
+}
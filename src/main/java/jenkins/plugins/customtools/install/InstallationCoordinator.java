@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.install;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import com.synopsys.arc.jenkinsci.plugins.customtools.CustomToolsLogger;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import java.io.IOException;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.plugins.customtools.CustomToolsGlobalConfiguration;
+import jenkins.plugins.customtools.util.SingleFlight;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Coordinates installations of tools on nodes.
+ * Only one installation of the tool version runs on the node at the same time,
+ * other builds wait for it and reuse its result.
+ * Installations of different tools or versions are not blocked.
+ * @since 0.9
+ */
+@Restricted(NoExternalUse.class)
+public class InstallationCoordinator {
+
+    private static final SingleFlight<String, String> INSTALLATIONS = new SingleFlight<>();
+
+    private InstallationCoordinator() {}
+
+    /**
+     * Installs the tool on the node if required.
+     * @param tool Tool from the global configuration
+     * @param node Target node
+     * @param version Effective version of the tool. May be null if the tool has no versions
+     * @param log Listener
+     * @return Home directory of the installed tool. Variables are substituted by {@link ToolPlan}
+     * @throws IOException Installation error
+     * @throws InterruptedException Installation has been interrupted
+     */
+    public static @CheckForNull String install(@Nonnull final CustomTool tool, @Nonnull final Node node,
+            @CheckForNull String version, @Nonnull final TaskListener log) throws IOException, InterruptedException {
+        return INSTALLATIONS.execute(keyOf(tool, node, version), () -> {
+            final boolean useManifest = CustomToolsGlobalConfiguration.get().isSkipUpToDateInstallations();
+            // Each version may have its own home, so that versions do not overwrite each other
+            final CustomTool versioned = tool.forVersion(version);
+            return InstallationManifest.translateFor(versioned, node, log, useManifest);
+        }, () -> log.getLogger().println(CustomToolsLogger.LOG_PREFIX + tool.getName()
+                + ": Waiting for the concurrent installation on " + node.getDisplayName()));
+    }
+
+    private static @Nonnull String keyOf(@Nonnull CustomTool tool, @Nonnull Node node, @CheckForNull String version) {
+        return node.getNodeName() + '\0' + tool.getName() + '\0' + tool.getConfigFingerprint() + '\0' + version;
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.install;
+
+import hudson.FilePath;
+import hudson.remoting.Channel;
+import hudson.remoting.VirtualChannel;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.security.MasterToSlaveCallable;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Cross-process lock of the tool installation directory.
+ * The lock is an OS file lock, which is held by the agent process.
+ * It prevents concurrent installations by several agent processes sharing the same tools directory.
+ * The lock is released if the agent gets disconnected.
+ * @since 0.9
+ */
+@Restricted(NoExternalUse.class)
+public class InstallationLock implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(InstallationLock.class.getName());
+
+    /**
+     * Suffix of the lock file, which is created next to the installation directory.
+     */
+    public static final String LOCK_FILE_SUFFIX = ".customtools-lock";
+
+    private static final long RETRY_INTERVAL_MS = 500;
+
+    /**
+     * Locks held by the current process. Populated on the agent side.
+     */
+    private static final Map<String, HeldLock> HELD_LOCKS = new ConcurrentHashMap<>();
+
+    private final @Nonnull FilePath installationRoot;
+    private final @Nonnull String token;
+
+    private InstallationLock(@Nonnull FilePath installationRoot, @Nonnull String token) {
+        this.installationRoot = installationRoot;
+        this.token = token;
+    }
+
+    /**
+     * Tries to acquire the lock without waiting.
+     * @param installationRoot Installation directory
+     * @return Lock or null if it is held by another process
+     * @throws IOException Cannot create the lock file
+     * @throws InterruptedException Operation has been interrupted
+     */
+    public static @CheckForNull InstallationLock tryAcquire(@Nonnull FilePath installationRoot)
+            throws IOException, InterruptedException {
+        final String token = installationRoot.act(new Acquire(false));
+        return token != null ? new InstallationLock(installationRoot, token) : null;
+    }
+
+    /**
+     * Acquires the lock and waits until it is released by other processes.
+     * @param installationRoot Installation directory
+     * @return Lock
+     * @throws IOException Cannot create the lock file
+     * @throws InterruptedException Operation has been interrupted
+     */
+    public static @Nonnull InstallationLock acquire(@Nonnull FilePath installationRoot)
+            throws IOException, InterruptedException {
+        final String token = installationRoot.act(new Acquire(true));
+        if (token == null) {
+            throw new IOException("Failed to lock " + installationRoot.getRemote());
+        }
+        return new InstallationLock(installationRoot, token);
+    }
+
+    @Override
+    public void close() throws IOException {
+        final VirtualChannel channel = installationRoot.getChannel();
+        if (channel == null) {
+            // The agent is disconnected, the lock has been released by its process
+            return;
+        }
+        // Aborted installations get here with the interrupted flag, the lock must be released anyway
+        final boolean interrupted = Thread.interrupted();
+        try {
+            channel.call(new Release(token));
+        } catch (InterruptedException ex) {
+            // Do not wait for the result, but make sure the release is sent
+            channel.callAsync(new Release(token));
+            throw new IOException("Interrupted while releasing the lock of " + installationRoot.getRemote(), ex);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Tries to lock the installation directory on the current node without waiting.
+     * The lock is not registered, the caller must close its channel.
+     * @param installationRoot Installation directory
+     * @return Lock or null if it is held by another process or by another channel of the current process
+     * @throws IOException Cannot create the lock file
+     */
+    static @CheckForNull FileLock tryLockLocally(@Nonnull File installationRoot) throws IOException {
+        final File lockFile = new File(installationRoot.getParentFile(), installationRoot.getName() + LOCK_FILE_SUFFIX);
+        Files.createDirectories(lockFile.getParentFile().toPath());
+        final FileChannel fileChannel = FileChannel.open(lockFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock = null;
+        try {
+            lock = fileChannel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            // Held by another channel within the same process
+        } finally {
+            if (lock == null) {
+                fileChannel.close();
+            }
+        }
+        return lock;
+    }
+
+    private static void release(@Nonnull String token) {
+        final HeldLock held = HELD_LOCKS.remove(token);
+        if (held == null) {
+            return;
+        }
+        if (held.channel != null) {
+            held.channel.removeListener(held.listener);
+        }
+        try {
+            held.lock.release();
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Failed to release the installation lock", ex);
+        } finally {
+            try {
+                held.lock.channel().close();
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Failed to close the installation lock file", ex);
+            }
+        }
+    }
+
+    /**
+     * Lock held by the agent process.
+     * It gets released once the remoting channel, which requested the lock, is closed.
+     */
+    private static class HeldLock {
+        private final @Nonnull FileLock lock;
+        private final @CheckForNull Channel channel;
+        private final @Nonnull Channel.Listener listener;
+
+        HeldLock(@Nonnull FileLock lock, @CheckForNull Channel channel, @Nonnull final String token) {
+            this.lock = lock;
+            this.channel = channel;
+            this.listener = new Channel.Listener() {
+                @Override
+                public void onClosed(Channel channel, IOException cause) {
+                    release(token);
+                }
+            };
+        }
+    }
+
+    private static class Acquire extends MasterToSlaveFileCallable<String> {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean wait;
+
+        Acquire(boolean wait) {
+            this.wait = wait;
+        }
+
+        @Override
+        public String invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            while (true) {
+                final FileLock lock = tryLockLocally(f);
+                if (lock != null) {
+                    final String token = UUID.randomUUID().toString();
+                    final HeldLock held = new HeldLock(lock, Channel.current(), token);
+                    HELD_LOCKS.put(token, held);
+                    if (held.channel != null) {
+                        held.channel.addListener(held.listener);
+                    }
+                    return token;
+                }
+                if (!wait) {
+                    return null;
+                }
+                Thread.sleep(RETRY_INTERVAL_MS);
+            }
+        }
+    }
+
+    private static class Release extends MasterToSlaveCallable<Void, IOException> {
+        private static final long serialVersionUID = 1L;
+
+        private final String token;
+
+        Release(String token) {
+            this.token = token;
+        }
+
+        @Override
+        public Void call() throws IOException {
+            release(token);
+            return null;
+        }
+    }
+}
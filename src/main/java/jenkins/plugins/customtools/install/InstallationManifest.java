@@ -0,0 +1,357 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.install;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import com.synopsys.arc.jenkinsci.plugins.customtools.CustomToolsLogger;
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.tools.InstallSourceProperty;
+import hudson.tools.ToolInstaller;
+import hudson.tools.ToolLocationNodeProperty;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.UUID;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.plugins.customtools.CustomToolsDiskQuota;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Manifest of the tool installation, which is stored in the installation directory on the node.
+ * The manifest allows skipping installers if the tool has been already installed with the same configuration,
+ * even after restarts of the agent or the controller.
+ * The manifest is written after each installation, it marks the complete installation for other processes.
+ * @since 0.9
+ */
+@Restricted(NoExternalUse.class)
+public class InstallationManifest {
+
+    /**
+     * Name of the manifest file in the installation directory.
+     */
+    public static final String MANIFEST_FILE = ".customtools-manifest";
+
+    static final String CONFIG_HASH = "configHash";
+    static final String INSTALLERS = "installers";
+    static final String HOME = "home";
+    static final String FILE_COUNT = "fileCount";
+    static final String TOTAL_SIZE = "totalSize";
+    static final String INSTALLATION_ID = "installationId";
+    static final String CONTENTS = "contents";
+
+    private InstallationManifest() {}
+
+    /**
+     * Installs the tool on the node unless the installation manifest confirms it is up to date.
+     * Installers are invoked under the cross-process {@link InstallationLock},
+     * so agent processes sharing the tools directory do not install the tool concurrently.
+     * @param tool Tool from the global configuration
+     * @param node Target node
+     * @param log Listener
+     * @param useManifest If {@code true}, the installation is skipped when the manifest matches the configuration.
+     *      Otherwise it is skipped only if another process has completed the installation while this one was waiting for the lock.
+     * @return Home directory of the tool as returned by {@link CustomTool#translateFor(hudson.model.Node, hudson.model.TaskListener)}
+     * @throws IOException Installation error
+     * @throws InterruptedException Installation has been interrupted
+     */
+    public static @CheckForNull String translateFor(@Nonnull CustomTool tool, @Nonnull Node node,
+            @Nonnull TaskListener log, boolean useManifest) throws IOException, InterruptedException {
+        final String installers = getInstallersIdentity(tool, node);
+        final FilePath root = installers != null ? getInstallationRoot(tool, node) : null;
+        if (root == null) {
+            // Nothing to be installed, or the node is offline
+            return tool.translateFor(node, log);
+        }
+
+        final String configHash = tool.getConfigFingerprint();
+        if (useManifest) {
+            final String installedHome = checkManifest(tool, root, configHash, installers, log);
+            if (installedHome != null) {
+                return installedHome;
+            }
+        }
+
+        InstallationLock lock = InstallationLock.tryAcquire(root);
+        boolean waited = false;
+        String previousInstallation = null;
+        if (lock == null) {
+            previousInstallation = root.act(new GetInstallationId());
+            log.getLogger().println(CustomToolsLogger.LOG_PREFIX + tool.getName()
+                    + ": Waiting for another process installing to " + root.getRemote());
+            lock = InstallationLock.acquire(root);
+            waited = true;
+        }
+        try (InstallationLock acquired = lock) {
+            // Another process may have completed the installation while we were waiting
+            if (useManifest || waited && !Objects.equals(previousInstallation, root.act(new GetInstallationId()))) {
+                final String installedHome = checkManifest(tool, root, configHash, installers, log);
+                if (installedHome != null) {
+                    return installedHome;
+                }
+            }
+
+            final String home = tool.translateFor(node, log);
+            if (home != null) {
+                // Sizes are needed only to skip installations or to evict them
+                final boolean recordSize = useManifest
+                        || node.getNodeProperties().get(CustomToolsDiskQuota.class) != null;
+                root.act(new WriteManifest(configHash, installers, home, recordSize));
+            }
+            return home;
+        }
+    }
+
+    private static @CheckForNull String checkManifest(@Nonnull CustomTool tool, @Nonnull FilePath root,
+            @Nonnull String configHash, @Nonnull String installers, @Nonnull TaskListener log)
+            throws IOException, InterruptedException {
+        final String installedHome = root.act(new CheckManifest(configHash, installers));
+        if (installedHome != null) {
+            log.getLogger().println(CustomToolsLogger.LOG_PREFIX + tool.getName()
+                    + ": Installation in " + root.getRemote() + " is up to date");
+        }
+        return installedHome;
+    }
+
+    /**
+     * Gets the identity of installers, which would be used for the node.
+     * @return Class name of the installer or null if the tool is not installed by installers
+     */
+    static @CheckForNull String getInstallersIdentity(@Nonnull CustomTool tool, @Nonnull Node node) {
+        final ToolLocationNodeProperty locations = node.getNodeProperties().get(ToolLocationNodeProperty.class);
+        if (locations != null && locations.getHome(tool) != null) {
+            // The location is defined by the node, installers are not invoked
+            return null;
+        }
+
+        final InstallSourceProperty installSource = tool.getProperties().get(InstallSourceProperty.class);
+        if (installSource == null) {
+            return null;
+        }
+        for (ToolInstaller installer : installSource.installers) {
+            // Only the first applicable installer is invoked
+            if (installer.appliesTo(node)) {
+                return installer.getClass().getName();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the directory, where installers put the tool by default.
+     * Mirrors {@code ToolInstaller#preferredLocation()}.
+     * @return Installation directory or null if the node is offline
+     */
+    static @CheckForNull FilePath getInstallationRoot(@Nonnull CustomTool tool, @Nonnull Node node) {
+        final FilePath root = node.getRootPath();
+        if (root == null) {
+            return null;
+        }
+        String home = Util.fixEmptyAndTrim(tool.getHome());
+        if (home == null) {
+            home = sanitize(tool.getDescriptor().getId()) + File.separatorChar + sanitize(tool.getName());
+        }
+        return root.child("tools").child(home);
+    }
+
+    private static String sanitize(String s) {
+        return s != null ? s.replaceAll("[^A-Za-z0-9_.-]+", "_") : null;
+    }
+
+    static @CheckForNull Properties read(@Nonnull File root) throws IOException {
+        final File manifest = new File(root, MANIFEST_FILE);
+        if (!manifest.isFile()) {
+            return null;
+        }
+        final Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(manifest.toPath())) {
+            props.load(in);
+        }
+        return props;
+    }
+
+    /**
+     * Checks the manifest on the node.
+     * Returns the installed home directory if the manifest matches the configuration.
+     */
+    private static class CheckManifest extends MasterToSlaveFileCallable<String> {
+        private static final long serialVersionUID = 1L;
+
+        private final String configHash;
+        private final String installers;
+
+        CheckManifest(String configHash, String installers) {
+            this.configHash = configHash;
+            this.installers = installers;
+        }
+
+        @Override
+        public String invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            final Properties props = read(f);
+            if (props == null || !configHash.equals(props.getProperty(CONFIG_HASH))
+                    || !installers.equals(props.getProperty(INSTALLERS))) {
+                return null;
+            }
+            final String home = props.getProperty(HOME);
+            return home != null && new File(home).isDirectory() ? home : null;
+        }
+    }
+
+    /**
+     * Gets the identifier of the last installation recorded in the manifest.
+     */
+    private static class GetInstallationId extends MasterToSlaveFileCallable<String> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            final Properties props = read(f);
+            return props != null ? props.getProperty(INSTALLATION_ID) : null;
+        }
+    }
+
+    /**
+     * Gets a fingerprint of the entries in the installation directory and in the home directory of the tool.
+     * Installers, which modify the installation, add, replace or touch entries in one of these directories,
+     * hence the fingerprint changes. Nested directories are not listed.
+     */
+    static @Nonnull String getContentsFingerprint(@Nonnull File root, @Nonnull File home) throws IOException {
+        final StringBuilder contents = new StringBuilder();
+        appendEntries(contents, root);
+        if (!home.equals(root)) {
+            appendEntries(contents, home);
+        }
+        return Util.getDigestOf(contents.toString());
+    }
+
+    private static void appendEntries(@Nonnull StringBuilder contents, @Nonnull File dir) throws IOException {
+        final String[] names = dir.list();
+        if (names == null) {
+            contents.append('\0');
+            return;
+        }
+        Arrays.sort(names);
+        for (String name : names) {
+            if (name.startsWith(MANIFEST_FILE)) {
+                // The manifest and its temporary files
+                continue;
+            }
+            final BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(new File(dir, name).toPath(), BasicFileAttributes.class,
+                        LinkOption.NOFOLLOW_LINKS);
+            } catch (NoSuchFileException ex) {
+                continue;
+            }
+            contents.append(name).append('\0').append(attrs.lastModifiedTime().toMillis())
+                    .append('\0').append(attrs.size()).append('\n');
+        }
+    }
+
+    /**
+     * Writes the manifest of the successful installation.
+     * The manifest is kept if it matches the configuration and the installers have not modified the installation,
+     * so it is not rewritten by each build.
+     */
+    private static class WriteManifest extends MasterToSlaveFileCallable<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final String configHash;
+        private final String installers;
+        private final String home;
+        private final boolean recordSize;
+
+        WriteManifest(String configHash, String installers, String home, boolean recordSize) {
+            this.configHash = configHash;
+            this.installers = installers;
+            this.home = home;
+            this.recordSize = recordSize;
+        }
+
+        @Override
+        public Void invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            if (!f.isDirectory()) {
+                // The installer has put the tool elsewhere, nothing to record
+                return null;
+            }
+            if (Files.isSymbolicLink(f.toPath())) {
+                // The home is linked to a shared tree, e.g. to the tool store. It must not be modified
+                return null;
+            }
+
+            final String contents = getContentsFingerprint(f, new File(home));
+            final Properties existing = read(f);
+            if (existing != null && configHash.equals(existing.getProperty(CONFIG_HASH))
+                    && installers.equals(existing.getProperty(INSTALLERS)) && home.equals(existing.getProperty(HOME))
+                    && contents.equals(existing.getProperty(CONTENTS))
+                    && (!recordSize || existing.getProperty(TOTAL_SIZE) != null)) {
+                // Up to date. Processes waiting for the lock keep seeing the same installation
+                return null;
+            }
+
+            final Properties props = new Properties();
+            props.setProperty(CONFIG_HASH, configHash);
+            props.setProperty(INSTALLERS, installers);
+            props.setProperty(HOME, home);
+            props.setProperty(CONTENTS, contents);
+            if (recordSize) {
+                final long[] stats = new long[2];
+                Files.walkFileTree(f.toPath(), new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        stats[0]++;
+                        stats[1] += attrs.size();
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+                props.setProperty(FILE_COUNT, Long.toString(stats[0]));
+                props.setProperty(TOTAL_SIZE, Long.toString(stats[1]));
+            }
+            props.setProperty(INSTALLATION_ID, UUID.randomUUID().toString());
+
+            // Write the manifest atomically, it marks the complete installation for other processes
+            final Path tmp = Files.createTempFile(f.toPath(), MANIFEST_FILE, ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(tmp)) {
+                    props.store(out, "Custom Tools installation manifest");
+                }
+                Files.move(tmp, new File(f, MANIFEST_FILE).toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.install;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import com.synopsys.arc.jenkinsci.plugins.customtools.PathsList;
+import javax.annotation.Nonnull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * A tool, which has been installed on the node and fully resolved for the build.
+ * Instances are shared between builds, hence they must not be modified.
+ * @since 0.9
+ */
+@Restricted(NoExternalUse.class)
+public class ResolvedInstallation {
+
+    private final @Nonnull CustomTool tool;
+    private final @Nonnull PathsList paths;
+
+    /**
+     * Constructor.
+     * @param tool Installed tool. Its home directory should be already corrected.
+     * @param paths Resolved paths of the tool
+     */
+    public ResolvedInstallation(@Nonnull CustomTool tool, @Nonnull PathsList paths) {
+        this.tool = tool;
+        this.paths = paths;
+    }
+
+    public @Nonnull CustomTool getTool() {
+        return tool;
+    }
+
+    public @Nonnull PathsList getPaths() {
+        return paths;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.install;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import com.synopsys.arc.jenkinsci.plugins.customtools.LabelSpecifics;
+import com.synopsys.arc.jenkinsci.plugins.customtools.versions.ToolVersionConfig;
+import hudson.EnvVars;
+import hudson.model.Node;
+import hudson.tools.ToolProperty;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.plugins.customtools.util.LabelSpecificsMatcher;
+import jenkins.plugins.customtools.util.envvars.VariablesSubstitutionHelper;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Immutable plan, which creates the tool used by a build.
+ * The plan is compiled once per tool configuration.
+ * Builds only bind node and build variables into its slots,
+ * which produces the same tool as {@link CustomTool#forInstalledHome(hudson.model.Node, java.lang.String)}
+ * followed by {@link CustomTool#forEnvironment(hudson.EnvVars)} with a single copy of the tool.
+ * @since 0.9
+ */
+@Restricted(NoExternalUse.class)
+public final class ToolPlan {
+
+    private final @Nonnull String name;
+    private final @Nonnull List<? extends ToolProperty<?>> properties;
+    private final @CheckForNull ToolVersionConfig toolVersion;
+    private final @Nonnull Slot exportedPaths;
+    private final @Nonnull Slot additionalVariables;
+    private final @Nonnull LabelSpecifics[] labelSpecifics;
+    private final @Nonnull Slot[] specificsPaths;
+    private final @Nonnull Slot[] specificsVariables;
+
+    /**
+     * Compiles the plan.
+     * @param tool Tool from the global configuration
+     */
+    public ToolPlan(@Nonnull CustomTool tool) {
+        this.name = tool.getName();
+        this.properties = Collections.unmodifiableList(tool.getProperties().toList());
+        this.toolVersion = tool.getToolVersion();
+        this.exportedPaths = new Slot(VariablesSubstitutionHelper.PATH, tool.getExportedPaths());
+        this.additionalVariables = new Slot(VariablesSubstitutionHelper.PROP_FILE, tool.getAdditionalVariables());
+        this.labelSpecifics = tool.getLabelSpecifics();
+        this.specificsPaths = new Slot[labelSpecifics.length];
+        this.specificsVariables = new Slot[labelSpecifics.length];
+        for (int i = 0; i < labelSpecifics.length; i++) {
+            specificsPaths[i] = new Slot(VariablesSubstitutionHelper.PATH, labelSpecifics[i].getExportedPaths());
+            specificsVariables[i] = new Slot(VariablesSubstitutionHelper.PROP_FILE, labelSpecifics[i].getAdditionalVars());
+        }
+    }
+
+    /**
+     * Creates the tool for the build.
+     * @param node Node, where the tool has been installed
+     * @param installedHome Home directory returned by the installation
+     * @param buildEnv Build environment
+     * @return New tool with substituted variables
+     * @throws IllegalStateException The tool has no home directory
+     */
+    public @Nonnull CustomTool bind(@Nonnull Node node, @CheckForNull String installedHome,
+            @Nonnull EnvVars buildEnv) {
+        final String home = new Slot(VariablesSubstitutionHelper.PATH, installedHome).bind(node, buildEnv);
+        if (home == null) {
+            throw new IllegalStateException("Tool home must not be null at this stage, likely it's an API misusage");
+        }
+
+        // Specifics, which do not apply to the node, are never used by the build, hence they are not substituted
+        final LabelSpecifics[] boundSpecifics = labelSpecifics.clone();
+        final BitSet applicable = LabelSpecificsMatcher.getApplicable(labelSpecifics, node);
+        for (int i = applicable.nextSetBit(0); i >= 0; i = applicable.nextSetBit(i + 1)) {
+            boundSpecifics[i] = new LabelSpecifics(labelSpecifics[i].getLabel(),
+                    specificsVariables[i].bind(node, buildEnv), specificsPaths[i].bind(node, buildEnv));
+        }
+
+        return new CustomTool(name, home, properties, exportedPaths.bind(node, buildEnv), boundSpecifics,
+                toolVersion, additionalVariables.bind(node, buildEnv));
+    }
+
+    /**
+     * String, which gets node variables and then build variables substituted.
+     */
+    private static final class Slot {
+        private final @Nonnull VariablesSubstitutionHelper helper;
+        private final @CheckForNull String text;
+        private final boolean constant;
+
+        Slot(@Nonnull VariablesSubstitutionHelper helper, @CheckForNull String text) {
+            this.helper = helper;
+            this.text = text;
+            this.constant = !VariablesSubstitutionHelper.hasMacros(text);
+        }
+
+        @CheckForNull
+        String bind(@Nonnull Node node, @Nonnull EnvVars buildEnv) {
+            if (constant) {
+                return text;
+            }
+            return helper.resolveVariable(helper.resolveVariable(text, node), buildEnv);
+        }
+    }
+}
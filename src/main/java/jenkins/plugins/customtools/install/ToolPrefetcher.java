@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.install;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import com.synopsys.arc.jenkinsci.plugins.customtools.LabelSpecifics;
+import com.synopsys.arc.jenkinsci.plugins.customtools.versions.ToolVersion;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.slaves.ComputerListener;
+import hudson.tools.ToolInstallation;
+import hudson.util.LogTaskListener;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import jenkins.model.Jenkins;
+import jenkins.plugins.customtools.CustomToolsGlobalConfiguration;
+import jenkins.plugins.customtools.util.ParallelTasks;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Installs custom tools in background once an agent connects.
+ * Builds, which need a tool while it is being prefetched, join the running installation.
+ * @since 0.9
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class ToolPrefetcher extends ComputerListener {
+
+    private static final Logger LOGGER = Logger.getLogger(ToolPrefetcher.class.getName());
+
+    @Override
+    public void onOnline(Computer c, TaskListener listener) {
+        final CustomToolsGlobalConfiguration config = CustomToolsGlobalConfiguration.get();
+        if (!config.isPrefetchTools()) {
+            return;
+        }
+        final Node node = c.getNode();
+        if (node == null || node instanceof Jenkins) {
+            // Tools are prefetched only on agents
+            return;
+        }
+
+        final List<CustomTool> tools = getToolsToPrefetch(node, config.getPrefetchedToolNames());
+        if (tools.isEmpty()) {
+            return;
+        }
+        listener.getLogger().println("Prefetching " + tools.size() + " custom tool(s) in background");
+        Computer.threadPoolForRemoting.submit(() -> prefetch(node, tools, config.getMaxParallelInstallations()));
+    }
+
+    private static void prefetch(@Nonnull Node node, @Nonnull List<CustomTool> tools, int maxParallelInstallations) {
+        final TaskListener log = new LogTaskListener(LOGGER, Level.FINE);
+        final List<Callable<String>> installers = new ArrayList<>(tools.size());
+        for (final CustomTool tool : tools) {
+            installers.add(() -> {
+                final ToolVersion version = ToolVersion.getEffectiveToolVersion(tool, new EnvVars(), node);
+                final String actualVersion = version != null ? version.getActualVersion() : null;
+                // Prevent eviction of the installation while it is being prefetched
+                try (ToolUsageRegistry.Lease lease = ToolUsageRegistry.acquire(node,
+                        Collections.singletonList(tool.forVersion(actualVersion)))) {
+                    return InstallationCoordinator.install(tool, node, actualVersion, log);
+                }
+            });
+        }
+        try {
+            ParallelTasks.invokeAll(installers, maxParallelInstallations,
+                    "CustomTools prefetcher for " + node.getDisplayName());
+            LOGGER.log(Level.FINE, "Prefetched {0} custom tool(s) on {1}",
+                    new Object[] {tools.size(), node.getDisplayName()});
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Failed to prefetch custom tools on " + node.getDisplayName(), ex);
+        } catch (InterruptedException ex) {
+            LOGGER.log(Level.INFO, "Prefetching of custom tools on " + node.getDisplayName() + " has been interrupted", ex);
+        }
+    }
+
+    /**
+     * Gets the tools to be installed on the agent.
+     * @param node Agent
+     * @param toolNames Names of tools to be prefetched. If empty,
+     *      tools with label specifics applicable to the agent are prefetched
+     * @return List of tools
+     */
+    static @Nonnull List<CustomTool> getToolsToPrefetch(@Nonnull Node node, @Nonnull String toolNames) {
+        final CustomTool.DescriptorImpl descriptor = ToolInstallation.all().get(CustomTool.DescriptorImpl.class);
+        final List<CustomTool> tools = new ArrayList<>();
+        if (descriptor == null) {
+            return tools;
+        }
+
+        final Set<String> names = new HashSet<>(Arrays.asList(toolNames.trim().split("\\s*,\\s*")));
+        names.remove("");
+        for (CustomTool tool : descriptor.getInstallations()) {
+            if (names.isEmpty() ? hasMatchingLabelSpecifics(tool, node) : names.contains(tool.getName())) {
+                tools.add(tool);
+            }
+        }
+        return tools;
+    }
+
+    private static boolean hasMatchingLabelSpecifics(@Nonnull CustomTool tool, @Nonnull Node node) {
+        for (LabelSpecifics spec : tool.getAppliedSpecifics(node)) {
+            if (spec.getLabel() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
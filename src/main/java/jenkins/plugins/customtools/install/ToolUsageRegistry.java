@@ -0,0 +1,237 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.install;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.model.Node;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Tracks usage of tool installations by running builds.
+ * Installations in use are never evicted by {@link ToolsDiskSweeper}.
+ * Builds acquire installations before installing tools, and release them once they complete.
+ * Other tasks, e.g. prefetching, hold a {@link Lease} while they install tools.
+ * @since 0.9
+ */
+@Restricted(NoExternalUse.class)
+public class ToolUsageRegistry {
+
+    private static final Map<String, NodeUsage> NODES = new ConcurrentHashMap<>();
+
+    /**
+     * Installations acquired by running builds.
+     */
+    private static final Map<Run<?, ?>, List<Lease>> LEASES = new WeakHashMap<>();
+
+    private ToolUsageRegistry() {}
+
+    /**
+     * Marks installations of the tools as used by the build.
+     * The call waits while the node is being swept.
+     * @param run Build
+     * @param node Node, where the build runs
+     * @param tools Tools to be used
+     */
+    public static void acquire(@Nonnull Run<?, ?> run, @Nonnull Node node, @Nonnull List<CustomTool> tools) {
+        final Lease lease = acquire(node, tools);
+        if (lease.homes.isEmpty()) {
+            return;
+        }
+        synchronized (LEASES) {
+            LEASES.computeIfAbsent(run, r -> new ArrayList<>()).add(lease);
+        }
+    }
+
+    /**
+     * Marks installations of the tools as used by a task, which is not a build.
+     * The call waits while the node is being swept.
+     * @param node Node, where the tools are installed
+     * @param tools Tools to be used
+     * @return Lease, which must be closed once the installations are no longer used
+     */
+    public static @Nonnull Lease acquire(@Nonnull Node node, @Nonnull List<CustomTool> tools) {
+        final List<String> homes = new ArrayList<>(tools.size());
+        for (CustomTool tool : tools) {
+            final String home = getManagedHome(tool, node);
+            if (home != null) {
+                homes.add(home);
+            }
+        }
+        final NodeUsage usage = usageOf(node.getNodeName());
+        if (!homes.isEmpty()) {
+            usage.acquire(homes);
+        }
+        return new Lease(usage, homes);
+    }
+
+    /**
+     * Releases all installations acquired by the build.
+     * @param run Build
+     */
+    public static void release(@Nonnull Run<?, ?> run) {
+        final List<Lease> leases;
+        synchronized (LEASES) {
+            leases = LEASES.remove(run);
+        }
+        if (leases != null) {
+            for (Lease lease : leases) {
+                lease.close();
+            }
+        }
+    }
+
+    /**
+     * Gets the installation directory of the tool, which is managed by the plugin.
+     * @return Installation directory within the {@code tools} directory of the node,
+     *      or null if the tool is not installed there
+     */
+    static @CheckForNull String getManagedHome(@Nonnull CustomTool tool, @Nonnull Node node) {
+        if (InstallationManifest.getInstallersIdentity(tool, node) == null) {
+            return null;
+        }
+        final FilePath root = node.getRootPath();
+        final FilePath home = InstallationManifest.getInstallationRoot(tool, node);
+        if (root == null || home == null) {
+            return null;
+        }
+        // Tools installed to absolute paths are not managed
+        final String toolsDir = root.child("tools").getRemote();
+        final String remote = home.getRemote();
+        return remote.startsWith(toolsDir) && remote.length() > toolsDir.length() ? remote : null;
+    }
+
+    static @Nonnull NodeUsage usageOf(@Nonnull String nodeName) {
+        return NODES.computeIfAbsent(nodeName, name -> new NodeUsage());
+    }
+
+    /**
+     * Usage of a single installation directory.
+     */
+    static class HomeUsage implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final String home;
+        final boolean inUse;
+        final long lastUsed;
+
+        HomeUsage(String home, boolean inUse, long lastUsed) {
+            this.home = home;
+            this.inUse = inUse;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    /**
+     * Usage of installations on the node.
+     * Acquisition and sweeping are mutually exclusive.
+     */
+    static class NodeUsage {
+        private final Map<String, int[]> inUse = new HashMap<>();
+        private final Map<String, Long> lastUsed = new HashMap<>();
+
+        synchronized void acquire(@Nonnull List<String> homes) {
+            final long now = System.currentTimeMillis();
+            for (String home : homes) {
+                inUse.computeIfAbsent(home, h -> new int[1])[0]++;
+                lastUsed.put(home, now);
+            }
+        }
+
+        synchronized void release(@Nonnull List<String> homes) {
+            final long now = System.currentTimeMillis();
+            for (String home : homes) {
+                final int[] count = inUse.get(home);
+                if (count != null && --count[0] <= 0) {
+                    inUse.remove(home);
+                }
+                lastUsed.put(home, now);
+            }
+        }
+
+        /**
+         * Gets usage of the homes. Must be invoked under the lock of this object.
+         * @param homes Installation directories
+         * @return Usage of the homes. Last use time is 0 if the home has not been used since the startup
+         */
+        @Nonnull List<HomeUsage> snapshot(@Nonnull List<String> homes) {
+            final List<HomeUsage> usages = new ArrayList<>(homes.size());
+            for (String home : homes) {
+                final Long used = lastUsed.get(home);
+                usages.add(new HomeUsage(home, inUse.containsKey(home), used != null ? used : 0));
+            }
+            return usages;
+        }
+
+        synchronized void forget(@Nonnull List<String> homes) {
+            for (String home : homes) {
+                lastUsed.remove(home);
+            }
+        }
+    }
+
+    /**
+     * Installations acquired by a build or another task.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final NodeUsage usage;
+        private final List<String> homes;
+        private boolean released;
+
+        private Lease(NodeUsage usage, List<String> homes) {
+            this.usage = usage;
+            this.homes = homes;
+        }
+
+        /**
+         * Releases the installations. Subsequent calls do nothing.
+         */
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            if (!homes.isEmpty()) {
+                usage.release(homes);
+            }
+        }
+    }
+
+    @Extension
+    public static class RunListenerImpl extends RunListener<Run<?, ?>> {
+        @Override
+        public void onCompleted(Run<?, ?> run, TaskListener listener) {
+            release(run);
+        }
+    }
+}
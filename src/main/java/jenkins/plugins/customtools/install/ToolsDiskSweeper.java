@@ -0,0 +1,317 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.install;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Functions;
+import hudson.Util;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.tools.ToolInstallation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.channels.FileLock;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.model.Jenkins;
+import jenkins.plugins.customtools.CustomToolsDiskQuota;
+import jenkins.plugins.customtools.installers.ToolStore;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Evicts least recently used tool installations from nodes with {@link CustomToolsDiskQuota}.
+ * Both installation directories of custom tools and entries of the {@link ToolStore} are considered.
+ * @since 0.9
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class ToolsDiskSweeper extends AsyncPeriodicWork {
+
+    private static final long RECURRENCE_PERIOD = SystemProperties.getLong(
+            ToolsDiskSweeper.class.getName() + ".recurrencePeriod", TimeUnit.HOURS.toMillis(1));
+
+    public ToolsDiskSweeper() {
+        super("Custom Tools disk sweeper");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return RECURRENCE_PERIOD;
+    }
+
+    @Override
+    protected void execute(TaskListener listener) throws IOException, InterruptedException {
+        final Jenkins jenkins = Jenkins.get();
+        final List<Node> nodes = new ArrayList<>(jenkins.getNodes());
+        nodes.add(jenkins);
+        for (Node node : nodes) {
+            final CustomToolsDiskQuota quota = node.getNodeProperties().get(CustomToolsDiskQuota.class);
+            if (quota == null) {
+                continue;
+            }
+            try {
+                final List<String> evicted = sweep(node, quota.getMaxSizeBytes());
+                for (String path : evicted) {
+                    listener.getLogger().println("Evicted " + path + " from " + node.getDisplayName());
+                }
+            } catch (IOException ex) {
+                Functions.printStackTrace(ex, listener.error("Failed to sweep custom tools on " + node.getDisplayName()));
+            }
+        }
+    }
+
+    /**
+     * Evicts least recently used installations until the used space is below the limit.
+     * Builds cannot acquire installations on the node while it is being swept.
+     * @param node Node to be swept
+     * @param maxSize Maximum size of installations in bytes
+     * @return Evicted paths
+     * @throws IOException Operation error
+     * @throws InterruptedException Operation has been interrupted
+     */
+    public static @Nonnull List<String> sweep(@Nonnull Node node, long maxSize) throws IOException, InterruptedException {
+        final FilePath root = node.getRootPath();
+        if (root == null) {
+            // Offline
+            return new ArrayList<>();
+        }
+
+        final Set<String> homes = new HashSet<>();
+        final CustomTool.DescriptorImpl descriptor = ToolInstallation.all().get(CustomTool.DescriptorImpl.class);
+        if (descriptor != null) {
+            for (CustomTool tool : descriptor.getInstallations()) {
+                final String home = ToolUsageRegistry.getManagedHome(tool, node);
+                if (home == null) {
+                    continue;
+                }
+                if (!tool.hasVersionedHomes()) {
+                    homes.add(home);
+                } else if (!home.contains("${")) {
+                    // Versions are installed to subdirectories of the home.
+                    // Homes with the version variable are not managed, they cannot be enumerated reliably
+                    final FilePath versionsDir = node.createPath(home);
+                    if (versionsDir == null || !versionsDir.isDirectory()) {
+                        continue;
+                    }
+                    for (FilePath versionDir : versionsDir.listDirectories()) {
+                        final String versionHome = ToolUsageRegistry.getManagedHome(
+                                tool.forVersion(versionDir.getName()), node);
+                        if (versionHome != null) {
+                            homes.add(versionHome);
+                        }
+                    }
+                }
+            }
+        }
+
+        final ToolUsageRegistry.NodeUsage usage = ToolUsageRegistry.usageOf(node.getNodeName());
+        synchronized (usage) {
+            final List<String> evicted = root.act(new Evict(usage.snapshot(new ArrayList<>(homes)),
+                    root.child(ToolStore.STORE_DIR).getRemote(), maxSize));
+            if (!evicted.isEmpty()) {
+                usage.forget(evicted);
+                InstallationCache.invalidate(node.getNodeName());
+            }
+            return evicted;
+        }
+    }
+
+    /**
+     * Installation directories and store entries, which are evicted together.
+     * Homes materialized from a store entry belong to the group of the entry,
+     * so that evicted entries never leave dangling links behind.
+     */
+    private static class Group {
+        private final List<File> homes = new ArrayList<>();
+        private final List<File> storeEntries = new ArrayList<>();
+        private long size;
+        private long lastUsed;
+        /**
+         * {@code true} if a home of the group is used by builds or locked by another process.
+         */
+        private boolean pinned;
+
+        void add(@Nonnull File dir, boolean storeEntry, long dirSize, long dirLastUsed) {
+            (storeEntry ? storeEntries : homes).add(dir);
+            size += dirSize;
+            lastUsed = Math.max(lastUsed, dirLastUsed);
+        }
+    }
+
+    /**
+     * Evicts installations on the node.
+     * Last use time of homes, which have not been used since the controller startup,
+     * falls back to the modification time of the directory.
+     * Homes are locked by {@link InstallationLock} while the node is swept,
+     * so installations running in other agent processes are never evicted.
+     */
+    private static class Evict extends MasterToSlaveFileCallable<List<String>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<ToolUsageRegistry.HomeUsage> homes;
+        private final String store;
+        private final long maxSize;
+
+        Evict(List<ToolUsageRegistry.HomeUsage> homes, String store, long maxSize) {
+            this.homes = homes;
+            this.store = store;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public List<String> invoke(File root, VirtualChannel channel) throws IOException, InterruptedException {
+            final List<FileLock> locks = new ArrayList<>();
+            try {
+                return evict(locks);
+            } finally {
+                for (FileLock lock : locks) {
+                    lock.channel().close();
+                }
+            }
+        }
+
+        private @Nonnull List<String> evict(@Nonnull List<FileLock> locks) throws IOException {
+            // Files shared by store entries and cloned homes are counted once
+            final Set<Object> counted = new HashSet<>();
+            final Map<String, Group> groups = new HashMap<>();
+            long total = 0;
+
+            final File[] entries = new File(store).listFiles(File::isDirectory);
+            if (entries != null) {
+                for (File entry : entries) {
+                    if (entry.getName().startsWith(".")) {
+                        // Incomplete download or extraction
+                        continue;
+                    }
+                    final long size = sizeOf(entry, counted);
+                    total += size;
+                    groups.computeIfAbsent(entry.getName(), k -> new Group()).add(entry, true, size, entry.lastModified());
+                }
+            }
+
+            // Homes being installed by other processes may be materializing any store entry
+            boolean installing = false;
+            for (ToolUsageRegistry.HomeUsage usage : homes) {
+                final File home = new File(usage.home);
+                if (!Files.exists(home.toPath(), LinkOption.NOFOLLOW_LINKS)) {
+                    continue;
+                }
+                final FileLock lock = usage.inUse ? null : InstallationLock.tryLockLocally(home);
+                if (lock != null) {
+                    locks.add(lock);
+                } else if (!usage.inUse) {
+                    installing = true;
+                }
+
+                // The marker is read under the lock, so the home cannot be materialized concurrently
+                final String entry = ToolStore.getMaterializedEntry(home);
+                final long size = sizeOf(home, counted);
+                total += size;
+                final Group group = groups.computeIfAbsent(entry != null ? entry : home.getAbsolutePath(),
+                        k -> new Group());
+                group.add(home, false, size, usage.lastUsed > 0 ? usage.lastUsed : home.lastModified());
+                group.pinned |= lock == null;
+            }
+
+            final List<Group> candidates = new ArrayList<>(groups.size());
+            for (Group group : groups.values()) {
+                if (!group.pinned && !(installing && !group.storeEntries.isEmpty())) {
+                    candidates.add(group);
+                }
+            }
+
+            final List<String> evicted = new ArrayList<>();
+            candidates.sort(Comparator.comparingLong(g -> g.lastUsed));
+            for (Group group : candidates) {
+                if (total <= maxSize) {
+                    break;
+                }
+                // Lock files are kept, other processes may be waiting on them
+                for (File home : group.homes) {
+                    ToolStore.deleteHome(home);
+                    evicted.add(home.getAbsolutePath());
+                }
+                for (File entry : group.storeEntries) {
+                    Util.deleteRecursive(entry);
+                    evicted.add(entry.getAbsolutePath());
+                }
+                total -= group.size;
+            }
+            return evicted;
+        }
+
+        /**
+         * Gets the size of the directory. Links are not followed.
+         * Files, which have been already counted, e.g. hard links to store entries, are skipped.
+         * The size recorded in the installation manifest is used for homes, which do not share files with the store.
+         */
+        private static long sizeOf(@Nonnull File dir, @Nonnull Set<Object> counted) throws IOException {
+            if (Files.isSymbolicLink(dir.toPath())) {
+                return 0;
+            }
+            if (ToolStore.getMaterializedEntry(dir) == null) {
+                final Long recorded = getRecordedSize(dir);
+                if (recorded != null) {
+                    return recorded;
+                }
+            }
+            final long[] size = new long[1];
+            Files.walkFileTree(dir.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    final Object key = attrs.fileKey();
+                    if (key == null || counted.add(key)) {
+                        size[0] += attrs.size();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return size[0];
+        }
+
+        private static @CheckForNull Long getRecordedSize(@Nonnull File dir) throws IOException {
+            final Properties manifest = InstallationManifest.read(dir);
+            final String size = manifest != null ? manifest.getProperty(InstallationManifest.TOTAL_SIZE) : null;
+            try {
+                return size != null ? Long.valueOf(size) : null;
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+    }
+}
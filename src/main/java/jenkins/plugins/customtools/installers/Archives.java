@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.installers;
+
+import hudson.FilePath;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * Utilities shared by archive installers. Methods are being invoked on the node.
+ * @since 0.9
+ */
+final class Archives {
+
+    /**
+     * File, which records the URL of the installed archive within the tool home.
+     */
+    static final String INSTALLED_FROM = ".installedFrom";
+
+    private Archives() {}
+
+    /**
+     * Checks if the archive has been already installed to the directory.
+     */
+    static boolean isInstalledFrom(@Nonnull File dir, @Nonnull URL url) throws IOException {
+        final File installedFrom = new File(dir, INSTALLED_FROM);
+        return installedFrom.isFile() && url.toExternalForm().equals(
+                new String(Files.readAllBytes(installedFrom.toPath()), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Records the successful installation of the archive.
+     */
+    static void markInstalledFrom(@Nonnull File dir, @Nonnull URL url) throws IOException {
+        Files.write(new File(dir, INSTALLED_FROM).toPath(), url.toExternalForm().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Resolves the archive entry within the target directory.
+     * @throws IOException The entry points outside of the target directory
+     */
+    static @Nonnull Path resolveEntry(@Nonnull Path root, @Nonnull String name) throws IOException {
+        final Path path = root.resolve(name).normalize();
+        if (!path.startsWith(root)) {
+            throw new IOException("Archive entry " + name + " is outside of the target directory");
+        }
+        return path;
+    }
+
+    /**
+     * Creates parent directories of the entry.
+     * Links, which have been already extracted, must not redirect the entry outside of the target directory.
+     * @param realRoot Real path of the target directory
+     * @param path Entry resolved by {@link #resolveEntry(java.nio.file.Path, java.lang.String)}
+     * @throws IOException The parent directory is outside of the target directory
+     */
+    static void createParentDirectories(@Nonnull Path realRoot, @Nonnull Path path) throws IOException {
+        Path existing = path.getParent();
+        while (existing != null && !Files.exists(existing, LinkOption.NOFOLLOW_LINKS)) {
+            existing = existing.getParent();
+        }
+        if (existing == null || !existing.toRealPath().startsWith(realRoot)) {
+            throw new IOException("Archive entry " + path + " is outside of the target directory");
+        }
+        if (!Files.isDirectory(path.getParent())) {
+            Files.createDirectories(path.getParent());
+        }
+        if (!path.getParent().toRealPath().startsWith(realRoot)) {
+            throw new IOException("Archive entry " + path + " is outside of the target directory");
+        }
+    }
+
+    /**
+     * Checks the target of the symbolic link.
+     * Absolute targets and targets outside of the target directory are rejected.
+     * @param realRoot Real path of the target directory
+     * @param link Link, its parent directory must already exist
+     * @param target Target of the link as stored in the archive
+     * @return Target of the link
+     * @throws IOException The link points outside of the target directory
+     */
+    static @Nonnull Path checkLinkTarget(@Nonnull Path realRoot, @Nonnull Path link, @Nonnull String target)
+            throws IOException {
+        final Path targetPath = Paths.get(target);
+        // Links within the target may be followed by "..", hence the existing target is checked physically as well
+        final Path resolved = link.getParent().toRealPath().resolve(targetPath);
+        if (targetPath.isAbsolute() || !resolved.normalize().startsWith(realRoot)
+                || Files.exists(resolved) && !resolved.toRealPath().startsWith(realRoot)) {
+            throw new IOException("Link " + link + " -> " + target + " points outside of the target directory");
+        }
+        return targetPath;
+    }
+
+    /**
+     * Checks the target of the hard link.
+     * @param realRoot Real path of the target directory
+     * @param target Target resolved by {@link #resolveEntry(java.nio.file.Path, java.lang.String)}
+     * @return Target of the link
+     * @throws IOException The link points outside of the target directory
+     */
+    static @Nonnull Path checkHardLinkTarget(@Nonnull Path realRoot, @Nonnull Path target) throws IOException {
+        if (!target.toRealPath().startsWith(realRoot)) {
+            throw new IOException("Link to " + target + " points outside of the target directory");
+        }
+        return target;
+    }
+
+    /**
+     * Applies permissions of directories once their content is extracted.
+     * Read-only directories would block the extraction otherwise.
+     */
+    static void applyDirectoryModes(@Nonnull Map<Path, Integer> modes) throws IOException, InterruptedException {
+        for (Map.Entry<Path, Integer> directory : modes.entrySet()) {
+            chmod(directory.getKey(), directory.getValue());
+        }
+    }
+
+    static void chmod(@Nonnull Path path, int mode) throws IOException, InterruptedException {
+        new FilePath(path.toFile()).chmod(mode & 07777);
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.installers;
+
+import hudson.FilePath;
+import hudson.Util;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import org.apache.commons.io.IOUtils;
+import org.jvnet.localizer.Localizable;
+
+/**
+ * Defines how tool homes are filled from the node-local {@link ToolStore}.
+ * @since 0.9
+ */
+public enum Materialization {
+
+    /**
+     * The home is a symbolic link to the store entry. Falls back to {@link #COPY}.
+     * The home is read-only, because it is shared with other homes.
+     */
+    LINK(Messages._Materialization_Link()) {
+        @Override
+        void materialize(@Nonnull File source, @Nonnull File home) throws IOException, InterruptedException {
+            try {
+                Files.createSymbolicLink(home.toPath(), source.toPath());
+            } catch (IOException | UnsupportedOperationException ex) {
+                // E.g. Windows without the symlink privilege
+                COPY.materialize(source, home);
+            }
+        }
+    },
+    /**
+     * The home is a tree of copy-on-write clones (reflinks) of the store files.
+     * If the file system does not support reflinks, files are hard-linked.
+     * Files, which cannot be hard-linked, get copied.
+     * Cloned homes are writable. Hard-linked files share the read-only permissions with the store entry.
+     */
+    CLONE(Messages._Materialization_Clone()) {
+        @Override
+        void materialize(@Nonnull File source, @Nonnull File home) throws IOException, InterruptedException {
+            if (reflink(source, home)) {
+                // Clones do not share data with the store
+                ToolStore.setWritable(home.toPath(), true);
+                return;
+            }
+            hardlink(source.toPath(), home.toPath());
+        }
+    },
+    /**
+     * The home is a writable full copy of the store entry.
+     */
+    COPY(Messages._Materialization_Copy()) {
+        @Override
+        void materialize(@Nonnull File source, @Nonnull File home) throws IOException, InterruptedException {
+            new FilePath(source).copyRecursiveTo(new FilePath(home));
+            ToolStore.setWritable(home.toPath(), true);
+        }
+    };
+
+    private static final Logger LOGGER = Logger.getLogger(Materialization.class.getName());
+
+    private final Localizable description;
+
+    Materialization(Localizable description) {
+        this.description = description;
+    }
+
+    public @Nonnull String getDescription() {
+        return description.toString();
+    }
+
+    /**
+     * Fills the home from the store entry. Invoked on the node.
+     * @param source Directory within the store entry
+     * @param home Tool home, which does not exist
+     */
+    abstract void materialize(@Nonnull File source, @Nonnull File home) throws IOException, InterruptedException;
+
+    /**
+     * Clones the tree using reflinks of the file system.
+     * @return {@code false} if reflinks are not supported
+     */
+    private static boolean reflink(@Nonnull File source, @Nonnull File home) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add("cp");
+        final String os = System.getProperty("os.name", "").toLowerCase(Locale.ENGLISH);
+        if (os.contains("linux")) {
+            command.add("--reflink=always");
+            command.add("-a");
+        } else if (os.contains("mac")) {
+            // clonefile(2) on APFS
+            command.add("-c");
+            command.add("-R");
+            command.add("-p");
+        } else {
+            return false;
+        }
+        command.add(source.getAbsolutePath() + File.separator + ".");
+        command.add(home.getAbsolutePath());
+
+        Files.createDirectories(home.toPath());
+        final Process process;
+        try {
+            process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        } catch (IOException ex) {
+            LOGGER.log(Level.FINE, "Cannot run cp to clone " + source, ex);
+            Util.deleteRecursive(home);
+            return false;
+        }
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream in = process.getInputStream()) {
+            IOUtils.copy(in, output);
+        }
+        if (process.waitFor() != 0) {
+            LOGGER.log(Level.FINE, "Reflinks are not supported for {0}: {1}",
+                    new Object[] {source, output.toString(Charset.defaultCharset().name())});
+            Util.deleteRecursive(home);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Mirrors the tree with hard links. Symbolic links are recreated.
+     * Files, which cannot be linked (e.g. the home is on another file system), are copied.
+     */
+    private static void hardlink(@Nonnull final Path source, @Nonnull final Path home) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(home.resolve(source.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                final Path target = home.resolve(source.relativize(file));
+                if (attrs.isSymbolicLink()) {
+                    Files.createSymbolicLink(target, Files.readSymbolicLink(file));
+                    return FileVisitResult.CONTINUE;
+                }
+                try {
+                    Files.createLink(target, file);
+                } catch (IOException | UnsupportedOperationException ex) {
+                    Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.installers;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.ProxyConfiguration;
+import hudson.Util;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.tools.ToolInstallation;
+import hudson.tools.ToolInstaller;
+import hudson.tools.ToolInstallerDescriptor;
+import hudson.util.FormValidation;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.plugins.customtools.util.ParallelTasks;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+
+/**
+ * Installs the tool from a zip archive, which is extracted by several threads on the node.
+ * Entries are distributed between workers using the central directory of the archive.
+ * @since 0.9
+ */
+public class ParallelZipInstaller extends ToolInstaller {
+
+    private final @Nonnull String url;
+    private @CheckForNull String subdir;
+    /**
+     * Number of extraction threads. 0 means the number of processors on the node.
+     */
+    private int threads;
+
+    @DataBoundConstructor
+    public ParallelZipInstaller(@CheckForNull String label, @Nonnull String url) {
+        super(label);
+        this.url = url;
+    }
+
+    public @Nonnull String getUrl() {
+        return url;
+    }
+
+    /**
+     * Gets the directory within the archive, which becomes the tool home.
+     * @return Relative path or null if the archive root is used
+     */
+    public @CheckForNull String getSubdir() {
+        return subdir;
+    }
+
+    @DataBoundSetter
+    public void setSubdir(@CheckForNull String subdir) {
+        this.subdir = Util.fixEmptyAndTrim(subdir);
+    }
+
+    /**
+     * Gets the number of extraction threads.
+     * @return Number of threads or 0 if the number of processors on the node is used
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    @DataBoundSetter
+    public void setThreads(int threads) {
+        this.threads = Math.max(0, threads);
+    }
+
+    @Override
+    public FilePath performInstallation(ToolInstallation tool, Node node, TaskListener log)
+            throws IOException, InterruptedException {
+        final FilePath dir = preferredLocation(tool, node);
+        final Integer extracted = dir.act(new Install(new URL(url), threads));
+        if (extracted != null) {
+            log.getLogger().println("Extracted " + extracted + " entries of " + url + " to " + dir);
+        }
+        return subdir != null ? dir.child(subdir) : dir;
+    }
+
+    /**
+     * Downloads and extracts the archive on the node.
+     * Returns the number of extracted entries or null if the archive has been already installed.
+     */
+    private static class Install extends MasterToSlaveFileCallable<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final URL url;
+        private final int threads;
+
+        Install(URL url, int threads) {
+            this.url = url;
+            this.threads = threads;
+        }
+
+        @Override
+        public Integer invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+            if (Archives.isInstalledFrom(dir, url)) {
+                return null;
+            }
+
+            final FilePath target = new FilePath(dir);
+            target.deleteRecursive();
+            target.mkdirs();
+
+            // Zip files need random access, the archive is downloaded first
+            final Path archive = Files.createTempFile(dir.toPath().getParent(), dir.getName(), ".zip");
+            try {
+                try (InputStream in = ProxyConfiguration.open(url).getInputStream()) {
+                    Files.copy(in, archive, StandardCopyOption.REPLACE_EXISTING);
+                }
+                final int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+                final int extracted = unzip(archive.toFile(), dir, workers, "CustomTools extraction of " + url);
+                Archives.markInstalledFrom(dir, url);
+                return extracted;
+            } finally {
+                Files.deleteIfExists(archive);
+            }
+        }
+    }
+
+    /**
+     * Extracts the archive to the directory.
+     * Directories are created upfront, then files are distributed between workers.
+     * Each worker reads the archive via its own {@link ZipFile}.
+     * Symbolic links are created once all files are written, so that files are never written through them.
+     * @return Number of extracted entries
+     */
+    static int unzip(@Nonnull final File archive, @Nonnull File dir, int workers, @Nonnull String threadName)
+            throws IOException, InterruptedException {
+        final Path root = dir.toPath().toAbsolutePath().normalize();
+        final Path realRoot = root.toRealPath();
+        final List<String> files = new ArrayList<>();
+        final List<String> links = new ArrayList<>();
+        final Map<Path, Integer> directoryModes = new LinkedHashMap<>();
+        try (ZipFile zip = new ZipFile(archive)) {
+            for (ZipArchiveEntry entry : Collections.list(zip.getEntries())) {
+                final Path path = Archives.resolveEntry(root, entry.getName());
+                if (entry.isDirectory()) {
+                    if (!path.equals(root)) {
+                        Archives.createParentDirectories(realRoot, path);
+                        Files.createDirectories(path);
+                    }
+                    if (hasUnixMode(entry)) {
+                        directoryModes.put(path, entry.getUnixMode());
+                    }
+                } else {
+                    Archives.createParentDirectories(realRoot, path);
+                    (entry.isUnixSymlink() ? links : files).add(entry.getName());
+                }
+            }
+        }
+
+        final AtomicInteger next = new AtomicInteger();
+        final List<Callable<Void>> tasks = new ArrayList<>(workers);
+        for (int i = 0; i < Math.min(workers, files.size()); i++) {
+            tasks.add(() -> {
+                try (ZipFile zip = new ZipFile(archive)) {
+                    int index;
+                    while ((index = next.getAndIncrement()) < files.size()) {
+                        if (Thread.interrupted()) {
+                            throw new InterruptedException();
+                        }
+                        final ZipArchiveEntry entry = zip.getEntry(files.get(index));
+                        extract(zip, entry, Archives.resolveEntry(root, entry.getName()));
+                    }
+                }
+                return null;
+            });
+        }
+        ParallelTasks.invokeAll(tasks, workers, threadName);
+
+        try (ZipFile zip = new ZipFile(archive)) {
+            for (String name : links) {
+                final ZipArchiveEntry entry = zip.getEntry(name);
+                final Path path = Archives.resolveEntry(root, name);
+                // Links created before may redirect the parent directory
+                Archives.createParentDirectories(realRoot, path);
+                final Path target = Archives.checkLinkTarget(realRoot, path, zip.getUnixSymlink(entry));
+                Files.deleteIfExists(path);
+                Files.createSymbolicLink(path, target);
+            }
+        }
+
+        Archives.applyDirectoryModes(directoryModes);
+        return files.size() + links.size() + directoryModes.size();
+    }
+
+    private static void extract(@Nonnull ZipFile zip, @Nonnull ZipArchiveEntry entry, @Nonnull Path path)
+            throws IOException, InterruptedException {
+        try (InputStream in = zip.getInputStream(entry)) {
+            Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (hasUnixMode(entry)) {
+            Archives.chmod(path, entry.getUnixMode());
+        }
+        if (entry.getTime() > 0) {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(entry.getTime()));
+        }
+    }
+
+    private static boolean hasUnixMode(@Nonnull ZipArchiveEntry entry) {
+        return entry.getPlatform() == ZipArchiveEntry.PLATFORM_UNIX && (entry.getUnixMode() & 07777) != 0;
+    }
+
+    @Extension
+    @Symbol("parallelZip")
+    public static class DescriptorImpl extends ToolInstallerDescriptor<ParallelZipInstaller> {
+
+        @Override
+        public String getDisplayName() {
+            return Messages.ParallelZipInstaller_DisplayName();
+        }
+
+        @Override
+        public boolean isApplicable(Class<? extends ToolInstallation> toolType) {
+            return toolType == CustomTool.class;
+        }
+
+        public FormValidation doCheckUrl(@QueryParameter String value) {
+            if (Util.fixEmptyAndTrim(value) == null) {
+                return FormValidation.error(Messages.StoreArchiveInstaller_UrlRequired());
+            }
+            try {
+                new URL(value);
+                return FormValidation.ok();
+            } catch (MalformedURLException ex) {
+                return FormValidation.error(ex.getMessage());
+            }
+        }
+    }
+}
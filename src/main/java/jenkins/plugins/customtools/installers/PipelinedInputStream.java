@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.installers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.annotation.Nonnull;
+
+/**
+ * Reads the source stream in a background thread.
+ * The data is passed to the consumer via a bounded queue of chunks,
+ * so that reading of the source overlaps its processing by the consumer.
+ * Failures of the source are rethrown to the consumer once it reaches them.
+ * @since 0.9
+ */
+class PipelinedInputStream extends InputStream {
+
+    static final int CHUNK_SIZE = 1024 * 1024;
+    static final int MAX_CHUNKS = 8;
+
+    /**
+     * Time to wait for the background thread on close, in milliseconds.
+     */
+    private static final long CLOSE_TIMEOUT = 1000;
+
+    private static final byte[] EOF = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(MAX_CHUNKS);
+    private final InputStream source;
+    private final Thread producer;
+    private volatile Throwable failure;
+
+    private byte[] current;
+    private int position;
+    private boolean eof;
+    private boolean closed;
+
+    PipelinedInputStream(@Nonnull final InputStream source, @Nonnull String threadName) {
+        this.source = source;
+        producer = new Thread(() -> produce(source), threadName);
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    private void produce(@Nonnull InputStream source) {
+        try (InputStream in = source) {
+            while (true) {
+                final byte[] buffer = new byte[CHUNK_SIZE];
+                final int read = fill(in, buffer);
+                if (read <= 0) {
+                    break;
+                }
+                chunks.put(read == buffer.length ? buffer : Arrays.copyOf(buffer, read));
+                if (read < buffer.length) {
+                    break;
+                }
+            }
+        } catch (InterruptedException ex) {
+            // The consumer has closed the stream
+            failure = ex;
+            return;
+        } catch (IOException | RuntimeException | Error ex) {
+            // Errors are passed to the consumer as well, it would wait for the data forever otherwise
+            failure = ex;
+        }
+        try {
+            chunks.put(EOF);
+        } catch (InterruptedException ex) {
+            // The consumer has closed the stream
+        }
+    }
+
+    private static int fill(@Nonnull InputStream in, @Nonnull byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            final int read = in.read(buffer, total, buffer.length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private boolean next() throws IOException {
+        while (current == null || position == current.length) {
+            if (eof) {
+                return false;
+            }
+            try {
+                current = chunks.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for data");
+            }
+            position = 0;
+            if (current == EOF) {
+                eof = true;
+                current = null;
+                if (failure != null) {
+                    throw new IOException("Failed to read the source stream", failure);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return next() ? current[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!next()) {
+            return -1;
+        }
+        final int read = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        eof = true;
+        current = null;
+        // Interruption does not abort blocking reads of sockets, closing the source does
+        producer.interrupt();
+        try {
+            source.close();
+        } finally {
+            chunks.clear();
+            try {
+                producer.join(CLOSE_TIMEOUT);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.installers;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.tools.ToolInstallation;
+import hudson.tools.ToolInstaller;
+import hudson.tools.ToolInstallerDescriptor;
+import hudson.util.FormValidation;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Locale;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.MasterToSlaveFileCallable;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+
+/**
+ * Installs the tool from an archive, which is shared via the node-local {@link ToolStore}.
+ * Tools and versions referring to the same archive content are extracted only once per node.
+ * @since 0.9
+ */
+public class StoreArchiveInstaller extends ToolInstaller {
+
+    private final @Nonnull String url;
+    private @CheckForNull String sha256;
+    private @CheckForNull String subdir;
+    private @CheckForNull Materialization materialization;
+
+    @DataBoundConstructor
+    public StoreArchiveInstaller(@CheckForNull String label, @Nonnull String url) {
+        super(label);
+        this.url = url;
+    }
+
+    public @Nonnull String getUrl() {
+        return url;
+    }
+
+    /**
+     * Gets the expected checksum of the archive.
+     * If it is defined, the archive is not downloaded when the store already contains it.
+     * @return SHA-256 checksum in the hexadecimal form or null if it is not defined
+     */
+    public @CheckForNull String getSha256() {
+        return sha256;
+    }
+
+    @DataBoundSetter
+    public void setSha256(@CheckForNull String sha256) {
+        final String value = Util.fixEmptyAndTrim(sha256);
+        this.sha256 = value != null ? value.toLowerCase(Locale.ENGLISH) : null;
+    }
+
+    /**
+     * Gets the directory within the archive, which becomes the tool home.
+     * @return Relative path or null if the archive root is used
+     */
+    public @CheckForNull String getSubdir() {
+        return subdir;
+    }
+
+    @DataBoundSetter
+    public void setSubdir(@CheckForNull String subdir) {
+        this.subdir = Util.fixEmptyAndTrim(subdir);
+    }
+
+    /**
+     * Gets the way, in which the tool home is filled from the store.
+     * @return Materialization mode. {@link Materialization#LINK} by default
+     */
+    public @Nonnull Materialization getMaterialization() {
+        return materialization != null ? materialization : Materialization.LINK;
+    }
+
+    @DataBoundSetter
+    public void setMaterialization(@CheckForNull Materialization materialization) {
+        this.materialization = materialization;
+    }
+
+    @Override
+    public FilePath performInstallation(ToolInstallation tool, Node node, TaskListener log)
+            throws IOException, InterruptedException {
+        final FilePath root = node.getRootPath();
+        if (root == null) {
+            throw new IOException("Cannot install " + tool.getName() + " on the offline node " + node.getDisplayName());
+        }
+        if (sha256 != null && !ToolStore.isValidChecksum(sha256)) {
+            throw new IOException("Invalid SHA-256 checksum of " + tool.getName() + ": " + sha256);
+        }
+
+        final FilePath home = preferredLocation(tool, node);
+        final String message = home.act(new Install(new URL(url), sha256, subdir, getMaterialization(),
+                root.child(ToolStore.STORE_DIR).getRemote()));
+        if (message != null) {
+            log.getLogger().println(message);
+        }
+        return home;
+    }
+
+    /**
+     * Materializes the tool home from the store on the node.
+     * Returns a message to be logged or null if the home is up to date.
+     */
+    private static class Install extends MasterToSlaveFileCallable<String> {
+        private static final long serialVersionUID = 1L;
+
+        private final URL url;
+        private final @CheckForNull String sha256;
+        private final @CheckForNull String subdir;
+        private final Materialization materialization;
+        private final String store;
+
+        Install(URL url, @CheckForNull String sha256, @CheckForNull String subdir,
+                Materialization materialization, String store) {
+            this.url = url;
+            this.sha256 = sha256;
+            this.subdir = subdir;
+            this.materialization = materialization;
+            this.store = store;
+        }
+
+        @Override
+        public String invoke(File home, VirtualChannel channel) throws IOException, InterruptedException {
+            final File storeDir = new File(store);
+            if (ToolStore.isMaterialized(home, url, sha256, subdir, materialization)) {
+                ToolStore.touch(storeDir, ToolStore.getMaterializedEntry(home));
+                return null;
+            }
+
+            File entry = sha256 != null ? ToolStore.lookup(storeDir, sha256) : null;
+            final String message;
+            if (entry != null) {
+                message = "Using " + entry + " from the tool store";
+            } else {
+                // The entry may be reused, if the server confirms that the archive has not changed
+                entry = ToolStore.add(storeDir, url, sha256);
+                message = "Using " + entry + " for " + url;
+            }
+
+            final File source = subdir != null ? new File(entry, subdir) : entry;
+            if (!source.isDirectory()) {
+                throw new IOException("Directory " + subdir + " does not exist in " + url);
+            }
+            ToolStore.materialize(source, home, url, entry.getName(), subdir, materialization);
+            ToolStore.touch(storeDir, entry.getName());
+            return message;
+        }
+    }
+
+    @Extension
+    @Symbol("storeArchive")
+    public static class DescriptorImpl extends ToolInstallerDescriptor<StoreArchiveInstaller> {
+
+        @Override
+        public String getDisplayName() {
+            return Messages.StoreArchiveInstaller_DisplayName();
+        }
+
+        @Override
+        public boolean isApplicable(Class<? extends ToolInstallation> toolType) {
+            return toolType == CustomTool.class;
+        }
+
+        public FormValidation doCheckUrl(@QueryParameter String value) {
+            if (Util.fixEmptyAndTrim(value) == null) {
+                return FormValidation.error(Messages.StoreArchiveInstaller_UrlRequired());
+            }
+            try {
+                new URL(value);
+                return FormValidation.ok();
+            } catch (MalformedURLException ex) {
+                return FormValidation.error(ex.getMessage());
+            }
+        }
+
+        public FormValidation doCheckSha256(@QueryParameter String value) {
+            final String sha256 = Util.fixEmptyAndTrim(value);
+            if (sha256 == null || ToolStore.isValidChecksum(sha256)) {
+                return FormValidation.ok();
+            }
+            return FormValidation.error(Messages.StoreArchiveInstaller_InvalidChecksum());
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.installers;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.ProxyConfiguration;
+import hudson.Util;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.tools.ToolInstallation;
+import hudson.tools.ToolInstaller;
+import hudson.tools.ToolInstallerDescriptor;
+import hudson.util.FormValidation;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.MasterToSlaveFileCallable;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+
+/**
+ * Installs the tool from a tar archive, which is being extracted while it is downloaded.
+ * Download, decompression and writing of files run in separate threads on the node.
+ * @since 0.9
+ */
+public class StreamingArchiveInstaller extends ToolInstaller {
+
+    private final @Nonnull String url;
+    private @CheckForNull String subdir;
+
+    @DataBoundConstructor
+    public StreamingArchiveInstaller(@CheckForNull String label, @Nonnull String url) {
+        super(label);
+        this.url = url;
+    }
+
+    public @Nonnull String getUrl() {
+        return url;
+    }
+
+    /**
+     * Gets the directory within the archive, which becomes the tool home.
+     * @return Relative path or null if the archive root is used
+     */
+    public @CheckForNull String getSubdir() {
+        return subdir;
+    }
+
+    @DataBoundSetter
+    public void setSubdir(@CheckForNull String subdir) {
+        this.subdir = Util.fixEmptyAndTrim(subdir);
+    }
+
+    @Override
+    public FilePath performInstallation(ToolInstallation tool, Node node, TaskListener log)
+            throws IOException, InterruptedException {
+        final FilePath dir = preferredLocation(tool, node);
+        if (dir.act(new Install(new URL(url)))) {
+            log.getLogger().println("Extracted " + url + " to " + dir + " while downloading");
+        }
+        return subdir != null ? dir.child(subdir) : dir;
+    }
+
+    /**
+     * Compression of the archive.
+     */
+    enum Compression {
+        NONE,
+        GZIP,
+        BZIP2;
+
+        static @Nonnull Compression of(@Nonnull String name) throws IOException {
+            final String lowerCaseName = name.toLowerCase(Locale.ENGLISH);
+            if (lowerCaseName.endsWith(".tar.gz") || lowerCaseName.endsWith(".tgz")) {
+                return GZIP;
+            }
+            if (lowerCaseName.endsWith(".tar.bz2") || lowerCaseName.endsWith(".tbz2")) {
+                return BZIP2;
+            }
+            if (lowerCaseName.endsWith(".tar")) {
+                return NONE;
+            }
+            throw new IOException("Unsupported archive format: " + name
+                    + ". Supported formats are .tar, .tar.gz, .tgz, .tar.bz2 and .tbz2");
+        }
+
+        @Nonnull InputStream decompress(@Nonnull InputStream in) throws IOException {
+            switch (this) {
+                case GZIP:
+                    return new GZIPInputStream(in, 64 * 1024);
+                case BZIP2:
+                    return new BZip2CompressorInputStream(in, true);
+                default:
+                    return in;
+            }
+        }
+    }
+
+    /**
+     * Downloads and extracts the archive on the node.
+     * Returns {@code false} if the archive has been already installed.
+     */
+    private static class Install extends MasterToSlaveFileCallable<Boolean> {
+        private static final long serialVersionUID = 1L;
+
+        private final URL url;
+
+        Install(URL url) {
+            this.url = url;
+        }
+
+        @Override
+        public Boolean invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+            if (Archives.isInstalledFrom(dir, url)) {
+                return false;
+            }
+            final Compression compression = Compression.of(url.getPath());
+
+            final FilePath target = new FilePath(dir);
+            target.deleteRecursive();
+            target.mkdirs();
+
+            // Download and decompression run in their own threads, the current thread writes the files
+            final String threadName = "CustomTools download of " + url;
+            try (InputStream downloaded = new PipelinedInputStream(ProxyConfiguration.open(url).getInputStream(), threadName);
+                 InputStream decompressed = compression == Compression.NONE ? downloaded
+                         : new PipelinedInputStream(compression.decompress(downloaded), "CustomTools decompression of " + url)) {
+                untar(decompressed, dir);
+            }
+
+            Archives.markInstalledFrom(dir, url);
+            return true;
+        }
+    }
+
+    /**
+     * Extracts the tar stream to the directory.
+     * Permissions, modification times and links are preserved.
+     */
+    static void untar(@Nonnull InputStream in, @Nonnull File dir) throws IOException, InterruptedException {
+        final Path root = dir.toPath().toAbsolutePath().normalize();
+        final Path realRoot = root.toRealPath();
+        // Directory permissions are applied at the end
+        final Map<Path, Integer> directoryModes = new LinkedHashMap<>();
+        final TarArchiveInputStream tar = new TarArchiveInputStream(in);
+        TarArchiveEntry entry;
+        while ((entry = tar.getNextTarEntry()) != null) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            final Path path = Archives.resolveEntry(root, entry.getName());
+            if (entry.isDirectory()) {
+                if (!path.equals(root)) {
+                    Archives.createParentDirectories(realRoot, path);
+                    Files.createDirectories(path);
+                }
+                directoryModes.put(path, entry.getMode());
+                continue;
+            }
+
+            Archives.createParentDirectories(realRoot, path);
+            Files.deleteIfExists(path);
+            if (entry.isSymbolicLink()) {
+                Files.createSymbolicLink(path, Archives.checkLinkTarget(realRoot, path, entry.getLinkName()));
+                continue;
+            }
+            if (entry.isLink()) {
+                Files.createLink(path, Archives.checkHardLinkTarget(realRoot,
+                        Archives.resolveEntry(root, entry.getLinkName())));
+                continue;
+            }
+            Files.copy(tar, path, StandardCopyOption.REPLACE_EXISTING);
+            Archives.chmod(path, entry.getMode());
+            Files.setLastModifiedTime(path, FileTime.fromMillis(entry.getModTime().getTime()));
+        }
+        Archives.applyDirectoryModes(directoryModes);
+    }
+
+    @Extension
+    @Symbol("streamingArchive")
+    public static class DescriptorImpl extends ToolInstallerDescriptor<StreamingArchiveInstaller> {
+
+        @Override
+        public String getDisplayName() {
+            return Messages.StreamingArchiveInstaller_DisplayName();
+        }
+
+        @Override
+        public boolean isApplicable(Class<? extends ToolInstallation> toolType) {
+            return toolType == CustomTool.class;
+        }
+
+        public FormValidation doCheckUrl(@QueryParameter String value) {
+            if (Util.fixEmptyAndTrim(value) == null) {
+                return FormValidation.error(Messages.StoreArchiveInstaller_UrlRequired());
+            }
+            try {
+                Compression.of(new URL(value).getPath());
+                return FormValidation.ok();
+            } catch (MalformedURLException ex) {
+                return FormValidation.error(ex.getMessage());
+            } catch (IOException ex) {
+                return FormValidation.warning(ex.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,459 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.installers;
+
+import hudson.FilePath;
+import hudson.ProxyConfiguration;
+import hudson.Util;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Node-local content-addressed store of extracted tool archives.
+ * Each archive is extracted once into the {@code <sha256>} directory of the store,
+ * tool homes are materialized from the shared copy as defined by {@link Materialization}.
+ * Entries are read-only, because linked homes share files with them.
+ * All methods are being invoked on the node.
+ * @since 0.9
+ */
+@Restricted(NoExternalUse.class)
+public class ToolStore {
+
+    /**
+     * Name of the store directory within the node root.
+     */
+    public static final String STORE_DIR = "custom-tools-store";
+
+    /**
+     * Suffix of the file, which records the store entry materialized in the tool home.
+     * The file is created next to the home, because the home may be a link to the shared entry.
+     */
+    public static final String MARKER_SUFFIX = ".customtools-store";
+
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
+    private static final String SOURCE = "source";
+    private static final String CHECKSUM = "sha256";
+    private static final String SUBDIR = "subdir";
+    private static final String MATERIALIZATION = "materialization";
+
+    private static final Logger LOGGER = Logger.getLogger(ToolStore.class.getName());
+
+    private ToolStore() {}
+
+    /**
+     * Checks if the string is a valid SHA-256 checksum in the hexadecimal form.
+     * @param sha256 Checksum
+     * @return {@code true} if the checksum can be used as a store key
+     */
+    public static boolean isValidChecksum(@CheckForNull String sha256) {
+        return sha256 != null && SHA256.matcher(sha256.toLowerCase(Locale.ENGLISH)).matches();
+    }
+
+    /**
+     * Gets the extracted archive from the store.
+     * @param store Store directory
+     * @param sha256 Checksum of the archive
+     * @return Extracted archive or null if it is missing in the store
+     */
+    static @CheckForNull File lookup(@Nonnull File store, @Nonnull String sha256) {
+        if (!isValidChecksum(sha256)) {
+            return null;
+        }
+        final File entry = new File(store, sha256.toLowerCase(Locale.ENGLISH));
+        return entry.isDirectory() ? entry : null;
+    }
+
+    /**
+     * Downloads the archive and adds it to the store unless the store already contains the same content.
+     * Entries are keyed by the checksum of the downloaded archive.
+     * If the checksum is not known in advance, the entry previously downloaded from the same URL is reused
+     * while the server confirms that the archive has not changed.
+     * @param store Store directory
+     * @param url URL of the archive
+     * @param expectedSha256 Expected checksum of the archive, if known
+     * @return Extracted archive in the store
+     * @throws IOException Download or extraction error, checksum mismatch
+     * @throws InterruptedException Operation has been interrupted
+     */
+    static @Nonnull File add(@Nonnull File store, @Nonnull URL url, @CheckForNull String expectedSha256)
+            throws IOException, InterruptedException {
+        Files.createDirectories(store.toPath());
+        final URLConnection connection = ProxyConfiguration.open(url);
+        final SourceInfo previous = expectedSha256 == null ? SourceInfo.read(store, url) : null;
+        final File previousEntry = previous != null ? lookup(store, previous.sha256) : null;
+        if (previousEntry != null && previous.isUnchanged(connection)) {
+            closeQuietly(connection);
+            return previousEntry;
+        }
+
+        final Path archive = Files.createTempFile(store.toPath(), ".download", null);
+        try {
+            final MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(connection.getInputStream(), digest)) {
+                Files.copy(in, archive, StandardCopyOption.REPLACE_EXISTING);
+            }
+            final String sha256 = Util.toHexString(digest.digest());
+            if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(sha256)) {
+                throw new IOException("SHA-256 checksum mismatch for " + url + ": expected "
+                        + expectedSha256 + ", got " + sha256);
+            }
+            if (expectedSha256 == null) {
+                SourceInfo.write(store, url, sha256, connection);
+            }
+
+            final File entry = new File(store, sha256);
+            if (entry.isDirectory()) {
+                // Another tool has already brought the same archive
+                return entry;
+            }
+            final Path extracted = Files.createTempDirectory(store.toPath(), ".extract");
+            try {
+                extract(archive.toFile(), url.getPath(), extracted.toFile());
+                // Homes may share files with the entry, builds must not modify them through the homes
+                setWritable(extracted, false);
+                try {
+                    // Rename is atomic, hence other processes never see partially extracted entries
+                    Files.move(extracted, entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException ex) {
+                    if (!entry.isDirectory()) {
+                        throw ex;
+                    }
+                    // The entry has been added concurrently
+                }
+            } finally {
+                if (Files.exists(extracted)) {
+                    Util.deleteRecursive(extracted.toFile());
+                }
+            }
+            return entry;
+        } finally {
+            Files.deleteIfExists(archive);
+        }
+    }
+
+    private static void closeQuietly(@Nonnull URLConnection connection) {
+        if (connection instanceof HttpURLConnection) {
+            ((HttpURLConnection) connection).disconnect();
+        }
+    }
+
+    /**
+     * Checksum and validators of the archive, which has been downloaded from the URL without a known checksum.
+     * Stored in the {@code .sources} directory of the store.
+     */
+    private static final class SourceInfo {
+        private static final String SOURCES_DIR = ".sources";
+        private static final String ETAG = "etag";
+        private static final String LAST_MODIFIED = "lastModified";
+        private static final String LENGTH = "length";
+
+        private final @Nonnull String sha256;
+        private final @CheckForNull String etag;
+        private final long lastModified;
+        private final long length;
+
+        private SourceInfo(@Nonnull String sha256, @CheckForNull String etag, long lastModified, long length) {
+            this.sha256 = sha256;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        /**
+         * Checks if the archive has not changed since it has been downloaded.
+         * HTTP servers get a conditional request, other connections compare the modification time and length.
+         */
+        boolean isUnchanged(@Nonnull URLConnection connection) throws IOException {
+            if (connection instanceof HttpURLConnection) {
+                if (etag == null && lastModified == 0) {
+                    return false;
+                }
+                if (etag != null) {
+                    connection.setRequestProperty("If-None-Match", etag);
+                }
+                if (lastModified != 0) {
+                    connection.setIfModifiedSince(lastModified);
+                }
+                return ((HttpURLConnection) connection).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED;
+            }
+            return lastModified != 0 && connection.getLastModified() == lastModified
+                    && connection.getContentLengthLong() == length;
+        }
+
+        static @CheckForNull SourceInfo read(@Nonnull File store, @Nonnull URL url) throws IOException {
+            final File file = getFile(store, url);
+            if (!file.isFile()) {
+                return null;
+            }
+            final Properties props = new Properties();
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                props.load(in);
+            }
+            final String sha256 = props.getProperty(CHECKSUM);
+            if (!url.toExternalForm().equals(props.getProperty(SOURCE)) || !isValidChecksum(sha256)) {
+                return null;
+            }
+            try {
+                return new SourceInfo(sha256, props.getProperty(ETAG),
+                        Long.parseLong(props.getProperty(LAST_MODIFIED, "0")),
+                        Long.parseLong(props.getProperty(LENGTH, "-1")));
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+
+        static void write(@Nonnull File store, @Nonnull URL url, @Nonnull String sha256,
+                @Nonnull URLConnection connection) throws IOException {
+            final File file = getFile(store, url);
+            final String etag = connection.getHeaderField("ETag");
+            final long lastModified = connection.getLastModified();
+            if (etag == null && lastModified == 0) {
+                // The server cannot confirm that the archive is unchanged
+                Files.deleteIfExists(file.toPath());
+                return;
+            }
+            final Properties props = new Properties();
+            props.setProperty(SOURCE, url.toExternalForm());
+            props.setProperty(CHECKSUM, sha256);
+            if (etag != null) {
+                props.setProperty(ETAG, etag);
+            }
+            props.setProperty(LAST_MODIFIED, Long.toString(lastModified));
+            props.setProperty(LENGTH, Long.toString(connection.getContentLengthLong()));
+
+            Files.createDirectories(file.getParentFile().toPath());
+            final Path tmp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(tmp)) {
+                    props.store(out, "Custom Tools store source");
+                }
+                Files.move(tmp, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+
+        private static @Nonnull File getFile(@Nonnull File store, @Nonnull URL url) throws IOException {
+            final byte[] key = sha256().digest(url.toExternalForm().getBytes(StandardCharsets.UTF_8));
+            return new File(new File(store, SOURCES_DIR), Util.toHexString(key));
+        }
+    }
+
+    private static void extract(@Nonnull File archive, @Nonnull String name, @Nonnull File target)
+            throws IOException, InterruptedException {
+        final String lowerCaseName = name.toLowerCase(Locale.ENGLISH);
+        final FilePath source = new FilePath(archive);
+        if (lowerCaseName.endsWith(".zip")) {
+            source.unzip(new FilePath(target));
+        } else if (lowerCaseName.endsWith(".tar.gz") || lowerCaseName.endsWith(".tgz")) {
+            source.untar(new FilePath(target), FilePath.TarCompression.GZIP);
+        } else if (lowerCaseName.endsWith(".tar")) {
+            source.untar(new FilePath(target), FilePath.TarCompression.NONE);
+        } else {
+            throw new IOException("Unsupported archive format: " + name
+                    + ". Supported formats are .zip, .tar, .tar.gz and .tgz");
+        }
+    }
+
+    /**
+     * Changes the write permission of all files and directories in the tree. Links are not followed.
+     * Read-only entries are still deleted by {@link Util#deleteRecursive(java.io.File)}.
+     * @param root Root of the tree
+     * @param writable {@code true} to make the tree writable by the owner, {@code false} to make it read-only
+     * @throws IOException Cannot walk the tree
+     */
+    static void setWritable(@Nonnull Path root, final boolean writable) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (writable) {
+                    // Directories must be writable before their entries are modified
+                    apply(dir);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isSymbolicLink()) {
+                    apply(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                if (!writable) {
+                    apply(dir);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            private void apply(Path path) {
+                if (!path.toFile().setWritable(writable, writable)) {
+                    LOGGER.log(Level.FINE, "Cannot change the write permission of {0}", path);
+                }
+            }
+        });
+    }
+
+    /**
+     * Checks if the home has been materialized from the same source.
+     * @param home Tool home
+     * @param url Source URL
+     * @param expectedSha256 Expected checksum, if any
+     * @param subdir Subdirectory of the archive
+     * @param materialization Materialization mode
+     * @return {@code true} if the home is up to date
+     * @throws IOException Cannot read the marker
+     */
+    static boolean isMaterialized(@Nonnull File home, @Nonnull URL url, @CheckForNull String expectedSha256,
+            @CheckForNull String subdir, @Nonnull Materialization materialization) throws IOException {
+        final File marker = getMarker(home);
+        if (!marker.isFile() || !home.isDirectory()) {
+            return false;
+        }
+        final Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(marker.toPath())) {
+            props.load(in);
+        }
+        return url.toExternalForm().equals(props.getProperty(SOURCE))
+                && Util.fixNull(subdir).equals(props.getProperty(SUBDIR))
+                && materialization.name().equals(props.getProperty(MATERIALIZATION, Materialization.LINK.name()))
+                && (expectedSha256 == null || expectedSha256.equalsIgnoreCase(props.getProperty(CHECKSUM)));
+    }
+
+    /**
+     * Materializes the tool home from the store entry.
+     * @param source Directory within the store entry
+     * @param home Tool home
+     * @param url Source URL
+     * @param sha256 Checksum of the store entry
+     * @param subdir Subdirectory of the archive
+     * @param materialization Materialization mode
+     * @throws IOException Operation error
+     * @throws InterruptedException Operation has been interrupted
+     */
+    static void materialize(@Nonnull File source, @Nonnull File home, @Nonnull URL url,
+            @Nonnull String sha256, @CheckForNull String subdir, @Nonnull Materialization materialization)
+            throws IOException, InterruptedException {
+        final File marker = getMarker(home);
+        Files.deleteIfExists(marker.toPath());
+        delete(home);
+        Files.createDirectories(home.getParentFile().toPath());
+        materialization.materialize(source, home);
+
+        final Properties props = new Properties();
+        props.setProperty(SOURCE, url.toExternalForm());
+        props.setProperty(CHECKSUM, sha256);
+        props.setProperty(SUBDIR, Util.fixNull(subdir));
+        props.setProperty(MATERIALIZATION, materialization.name());
+        try (OutputStream out = Files.newOutputStream(marker.toPath())) {
+            props.store(out, "Custom Tools store entry");
+        }
+    }
+
+    /**
+     * Gets the store entry materialized in the tool home.
+     * @param home Tool home
+     * @return Checksum of the store entry or null if the home has not been materialized from the store
+     * @throws IOException Cannot read the marker
+     */
+    public static @CheckForNull String getMaterializedEntry(@Nonnull File home) throws IOException {
+        final File marker = getMarker(home);
+        if (!marker.isFile()) {
+            return null;
+        }
+        final Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(marker.toPath())) {
+            props.load(in);
+        }
+        final String sha256 = props.getProperty(CHECKSUM);
+        return isValidChecksum(sha256) ? sha256 : null;
+    }
+
+    /**
+     * Marks the store entry as recently used.
+     * @param store Store directory
+     * @param sha256 Checksum of the entry
+     */
+    static void touch(@Nonnull File store, @CheckForNull String sha256) {
+        final File entry = sha256 != null ? lookup(store, sha256) : null;
+        if (entry != null && !entry.setLastModified(System.currentTimeMillis())) {
+            LOGGER.log(Level.FINE, "Cannot update the modification time of {0}", entry);
+        }
+    }
+
+    /**
+     * Deletes the tool home and its marker. Links to the store are not followed.
+     * @param home Tool home
+     * @throws IOException Operation error
+     */
+    public static void deleteHome(@Nonnull File home) throws IOException {
+        Files.deleteIfExists(getMarker(home).toPath());
+        delete(home);
+    }
+
+    private static void delete(@Nonnull File home) throws IOException {
+        final Path path = home.toPath();
+        if (Files.isSymbolicLink(path)) {
+            // Never follow the link, the target belongs to the store
+            Files.delete(path);
+        } else if (Files.exists(path)) {
+            Util.deleteRecursive(home);
+        }
+    }
+
+    private static @Nonnull File getMarker(@Nonnull File home) {
+        return new File(home.getParentFile(), home.getName() + MARKER_SUFFIX);
+    }
+
+    private static @Nonnull MessageDigest sha256() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException("SHA-256 is not supported by the JVM", ex);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.util;
+
+import com.synopsys.arc.jenkinsci.plugins.customtools.LabelSpecifics;
+import hudson.model.Node;
+import hudson.model.labels.LabelAtom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Matches label specifics of tools against nodes.
+ * Whether a label expression applies to a node depends only on the labels assigned to the node,
+ * so the applicable specifics are computed once per label set and stored as a bitset.
+ * Matchers are shared by all tools with the same label expressions.
+ * @since 0.9
+ */
+@Restricted(NoExternalUse.class)
+public final class LabelSpecificsMatcher {
+
+    /**
+     * Maximum number of cached matchers and of cached label sets per matcher.
+     * Caches get reset when they grow above the limit.
+     */
+    private static final int MAX_CACHED = 1024;
+
+    private static final ConcurrentMap<List<String>, LabelSpecificsMatcher> MATCHERS = new ConcurrentHashMap<>();
+
+    private final @Nonnull LabelSpecifics[] specifics;
+    private final ConcurrentMap<Set<LabelAtom>, BitSet> applicable = new ConcurrentHashMap<>();
+
+    private LabelSpecificsMatcher(@Nonnull LabelSpecifics[] specifics) {
+        this.specifics = specifics;
+    }
+
+    /**
+     * Gets indexes of the specifics, which apply to the node.
+     * @param specifics Label specifics of the tool
+     * @param node Node to be checked
+     * @return Indexes of the applicable specifics. The bitset is shared and must not be modified
+     */
+    public static @Nonnull BitSet getApplicable(@Nonnull LabelSpecifics[] specifics, @Nonnull Node node) {
+        if (specifics.length == 0) {
+            return new BitSet();
+        }
+        final List<String> labels = new ArrayList<>(specifics.length);
+        for (LabelSpecifics spec : specifics) {
+            labels.add(spec.getLabel());
+        }
+
+        LabelSpecificsMatcher matcher = MATCHERS.get(labels);
+        if (matcher == null) {
+            if (MATCHERS.size() >= MAX_CACHED) {
+                MATCHERS.clear();
+            }
+            // Only labels are evaluated, so matchers may be shared by specifics of other tools
+            matcher = MATCHERS.computeIfAbsent(labels,
+                    k -> new LabelSpecificsMatcher(Arrays.copyOf(specifics, specifics.length)));
+        }
+        return matcher.match(node);
+    }
+
+    /**
+     * Discards all cached matchers. Invoked when the tools configuration gets saved.
+     */
+    public static void invalidateAll() {
+        MATCHERS.clear();
+    }
+
+    private @Nonnull BitSet match(@Nonnull Node node) {
+        final Set<LabelAtom> assignedLabels = node.getAssignedLabels();
+        BitSet result = applicable.get(assignedLabels);
+        if (result == null) {
+            result = new BitSet(specifics.length);
+            for (int i = 0; i < specifics.length; i++) {
+                if (specifics[i].appliesTo(node)) {
+                    result.set(i);
+                }
+            }
+            if (applicable.size() >= MAX_CACHED) {
+                applicable.clear();
+            }
+            applicable.put(assignedLabels, result);
+        }
+        return result;
+    }
+}
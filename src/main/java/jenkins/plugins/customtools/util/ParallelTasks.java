@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.util;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.Nonnull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Runs independent tasks with a bounded concurrency.
+ * Results are always returned in the order of the submitted tasks.
+ * The first failure cancels all other tasks.
+ * @since 0.9
+ */
+@Restricted(NoExternalUse.class)
+public class ParallelTasks {
+
+    private ParallelTasks() {}
+
+    /**
+     * Invokes all tasks and waits for their completion.
+     * @param <T> Type of the task results
+     * @param tasks Tasks to be executed
+     * @param maxThreads Maximum number of concurrently running tasks.
+     *      If it is 1 or less, the tasks are being executed in the current thread
+     * @param threadName Name of the threads, which execute the tasks
+     * @return Results of the tasks in the submission order
+     * @throws IOException One of the tasks has failed
+     * @throws InterruptedException The execution has been interrupted
+     */
+    public static @Nonnull <T> List<T> invokeAll(@Nonnull List<? extends Callable<T>> tasks,
+            int maxThreads, @Nonnull String threadName) throws IOException, InterruptedException {
+        final List<T> results = new ArrayList<>(tasks.size());
+        final int threads = Math.min(maxThreads, tasks.size());
+        if (threads <= 1) {
+            for (Callable<T> task : tasks) {
+                results.add(call(task));
+            }
+            return results;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new NamingThreadFactory(new DaemonThreadFactory(), threadName));
+        try {
+            final CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+            final Map<Future<T>, Integer> indexes = new IdentityHashMap<>();
+            for (Callable<T> task : tasks) {
+                indexes.put(completionService.submit(task), results.size());
+                results.add(null);
+            }
+
+            for (int i = 0; i < tasks.size(); i++) {
+                final Future<T> future = completionService.take();
+                try {
+                    results.set(indexes.get(future), future.get());
+                } catch (ExecutionException ex) {
+                    // Fail fast, other tasks get interrupted in the finally block
+                    throw rethrow(ex.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    private static <T> T call(@Nonnull Callable<T> task) throws IOException, InterruptedException {
+        try {
+            return task.call();
+        } catch (IOException | InterruptedException | RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    private static IOException rethrow(Throwable cause) throws InterruptedException {
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof InterruptedException) {
+            throw (InterruptedException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IOException(cause);
+    }
+}
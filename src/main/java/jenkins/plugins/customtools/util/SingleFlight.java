@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.util;
+
+import hudson.AbortException;
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Ensures that only one task runs for a key at the same time.
+ * Callers, which request the same key while the task is running, wait for it and reuse its result.
+ * Tasks with different keys do not block each other.
+ * @param <K> Type of keys
+ * @param <V> Type of results
+ * @since 0.9
+ */
+@Restricted(NoExternalUse.class)
+public class SingleFlight<K, V> {
+
+    /**
+     * Task, which is executed by the first caller.
+     * @param <V> Type of the result
+     */
+    public interface Task<V> {
+        V call() throws IOException, InterruptedException;
+    }
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the task or joins the task, which is already running for the key.
+     * If the running task gets interrupted, one of the waiting callers runs the task again.
+     * @param key Key
+     * @param task Task to be executed
+     * @param onWait Action to be invoked before waiting for another caller
+     * @return Result of the task
+     * @throws IOException The task has failed
+     * @throws InterruptedException The task or waiting has been interrupted
+     */
+    public V execute(@Nonnull K key, @Nonnull Task<V> task, @CheckForNull Runnable onWait)
+            throws IOException, InterruptedException {
+        while (true) {
+            final CompletableFuture<V> own = new CompletableFuture<>();
+            final CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+            if (running == null) {
+                try {
+                    final V result = task.call();
+                    own.complete(result);
+                    return result;
+                } catch (IOException | InterruptedException | RuntimeException | Error ex) {
+                    own.completeExceptionally(ex);
+                    throw ex;
+                } finally {
+                    inFlight.remove(key, own);
+                }
+            }
+
+            if (onWait != null) {
+                onWait.run();
+            }
+            try {
+                return running.get();
+            } catch (CancellationException ex) {
+                // Retry
+            } catch (ExecutionException ex) {
+                final Throwable cause = ex.getCause();
+                if (cause instanceof InterruptedException) {
+                    // The owner has been interrupted, but the current caller still needs the result
+                    continue;
+                }
+                if (cause instanceof AbortException) {
+                    throw new AbortException(cause.getMessage());
+                }
+                throw new IOException(cause.getMessage(), cause);
+            }
+        }
+    }
+}
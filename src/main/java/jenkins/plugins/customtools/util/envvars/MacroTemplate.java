@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.util.envvars;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+
+/**
+ * String with {@code ${NAME}} macros split into literal segments and macro names.
+ * Templates are cached, because the same strings get substituted by every build.
+ * @since 0.9
+ */
+final class MacroTemplate {
+
+    /**
+     * Maximum number of cached templates.
+     * The cache gets reset when it grows above the limit.
+     */
+    private static final int MAX_CACHED = 1024;
+
+    private static final ConcurrentMap<String, MacroTemplate> COMPILED = new ConcurrentHashMap<>();
+
+    /**
+     * Literal segments. There is one segment more than names.
+     */
+    final @Nonnull String[] literals;
+    final @Nonnull String[] names;
+    /**
+     * {@code true} if a macro start is nested into another macro, e.g. {@code ${A${B}}}.
+     */
+    final boolean nested;
+
+    private MacroTemplate(@Nonnull String[] literals, @Nonnull String[] names, boolean nested) {
+        this.literals = literals;
+        this.names = names;
+        this.nested = nested;
+    }
+
+    static @Nonnull MacroTemplate of(@Nonnull String input) {
+        MacroTemplate template = COMPILED.get(input);
+        if (template == null) {
+            template = compile(input);
+            if (COMPILED.size() >= MAX_CACHED) {
+                COMPILED.clear();
+            }
+            COMPILED.put(input, template);
+        }
+        return template;
+    }
+
+    private static @Nonnull MacroTemplate compile(@Nonnull String input) {
+        final List<String> literals = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final StringBuilder literal = new StringBuilder();
+        boolean nested = false;
+        int index = 0;
+        while (true) {
+            int start = input.indexOf("${", index);
+            final int end = start >= 0 ? input.indexOf('}', start + 2) : -1;
+            if (end < 0) {
+                literal.append(input, index, input.length());
+                break;
+            }
+
+            // The inner macro start restarts the scan, the outer one is a literal
+            final int inner = input.lastIndexOf("${", end - 2);
+            if (inner > start) {
+                nested = true;
+                start = inner;
+            }
+            literal.append(input, index, start);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            names.add(input.substring(start + 2, end));
+            index = end + 1;
+        }
+        literals.add(literal.toString());
+        return new MacroTemplate(literals.toArray(new String[0]), names.toArray(new String[0]), nested);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.util.envvars;
+
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Node;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import hudson.slaves.EnvironmentVariablesNodeProperty;
+import hudson.slaves.NodeProperty;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.model.Jenkins;
+import jenkins.model.NodeListener;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Snapshot of variables defined by node properties and global properties.
+ * Variables of the node take precedence over global variables.
+ * Snapshots are cached per node and discarded when the node or the global configuration changes.
+ * @since 0.9
+ */
+@Restricted(NoExternalUse.class)
+public final class NodeVariables {
+
+    private static final Map<String, NodeVariables> SNAPSHOTS = new ConcurrentHashMap<>();
+    /**
+     * Incremented on each invalidation, so snapshots computed from the outdated configuration are not cached.
+     */
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private final @Nonnull WeakReference<Node> node;
+    /**
+     * Variables of all properties, the node ones override the global ones.
+     */
+    private final @Nonnull EnvVars variables;
+    /**
+     * Variables of each property in the order of substitution.
+     */
+    private final @Nonnull List<EnvVars> layers;
+    /**
+     * {@code true} if substituted values may produce macros, which are resolved depending on the order of properties,
+     * or if properties define the same variable in a different case.
+     * Then variables are substituted property by property.
+     */
+    private final boolean layered;
+
+    private NodeVariables(@Nonnull Node node, @Nonnull EnvVars variables, @Nonnull List<EnvVars> layers,
+            boolean layered) {
+        this.node = new WeakReference<>(node);
+        this.variables = variables;
+        this.layers = layers;
+        this.layered = layered;
+    }
+
+    /**
+     * Gets variables of the node.
+     * @param node Node
+     * @return Snapshot of variables
+     */
+    public static @Nonnull NodeVariables of(@Nonnull Node node) {
+        final String key = node.getNodeName();
+        NodeVariables snapshot = SNAPSHOTS.get(key);
+        if (snapshot == null || snapshot.node.get() != node) {
+            final long generation = GENERATION.get();
+            snapshot = create(node);
+            if (generation == GENERATION.get()) {
+                SNAPSHOTS.put(key, snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Discards all snapshots.
+     */
+    public static void invalidateAll() {
+        GENERATION.incrementAndGet();
+        SNAPSHOTS.clear();
+    }
+
+    private static @Nonnull NodeVariables create(@Nonnull Node node) {
+        // Node properties are substituted first, hence they take precedence
+        final List<EnvVars> layers = new ArrayList<>();
+        addLayers(layers, node.getNodeProperties());
+        addLayers(layers, Jenkins.getActiveInstance().getGlobalNodeProperties());
+
+        final EnvVars variables = new EnvVars();
+        boolean layered = false;
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            for (Map.Entry<String, String> entry : layers.get(i).entrySet()) {
+                final String overridden = variables.ceilingKey(entry.getKey());
+                if (overridden != null && overridden.equalsIgnoreCase(entry.getKey())
+                        && !overridden.equals(entry.getKey())) {
+                    layered = true;
+                }
+                // Empty values may join the surrounding text into macros of the next layer
+                if (layers.size() > 1 && (entry.getValue().isEmpty()
+                        || VariablesSubstitutionHelper.mayFormMacros(entry.getValue()))) {
+                    layered = true;
+                }
+                variables.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return new NodeVariables(node, variables, Collections.unmodifiableList(layers), layered);
+    }
+
+    private static void addLayers(@Nonnull List<EnvVars> layers, @Nonnull Iterable<? extends NodeProperty<?>> properties) {
+        for (NodeProperty<?> property : properties) {
+            //TODO: add support of other configuration entries or propagate environments
+            if (property instanceof EnvironmentVariablesNodeProperty) {
+                layers.add(new EnvVars(((EnvironmentVariablesNodeProperty) property).getEnvVars()));
+            }
+        }
+    }
+
+    /**
+     * Resolves macros using the node variables.
+     * @param helper Helper, which escapes substituted values
+     * @param inputValue Input string
+     * @return Substituted string
+     */
+    @CheckForNull
+    String resolve(@Nonnull VariablesSubstitutionHelper helper, @CheckForNull String inputValue) {
+        if (!layered) {
+            return helper.resolveVariable(inputValue, variables);
+        }
+        String substitutedString = inputValue;
+        for (EnvVars layer : layers) {
+            substitutedString = helper.resolveVariable(substitutedString, layer);
+        }
+        return substitutedString;
+    }
+
+    /**
+     * Discards snapshots when the global configuration or nodes get saved.
+     */
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Jenkins || o instanceof Node) {
+                invalidateAll();
+            }
+        }
+    }
+
+    /**
+     * Discards snapshots when nodes get created, updated or deleted.
+     */
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static class NodeListenerImpl extends NodeListener {
+        @Override
+        protected void onCreated(Node node) {
+            invalidateAll();
+        }
+
+        @Override
+        protected void onUpdated(Node oldOne, Node newOne) {
+            invalidateAll();
+        }
+
+        @Override
+        protected void onDeleted(Node node) {
+            invalidateAll();
+        }
+    }
+}
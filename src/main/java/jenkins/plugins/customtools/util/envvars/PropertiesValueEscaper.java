@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.util.envvars;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Escapes values for the Java Properties format.
+ * The output is the same as the value written by {@link java.util.Properties#store(java.io.OutputStream, String)}
+ * with trailing whitespace removed, which is the format used by {@link VariablesSubstitutionHelper#PROP_FILE}.
+ * @since 0.9
+ */
+final class PropertiesValueEscaper {
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private PropertiesValueEscaper() {}
+
+    /**
+     * Escapes the value.
+     * @param value Raw value
+     * @return Escaped value. The input string is returned if it does not need escaping
+     */
+    static @Nonnull String escape(@Nonnull String value) {
+        final int length = value.length();
+        int index = 0;
+        while (index < length && !needsEscaping(value.charAt(index), index)) {
+            index++;
+        }
+        if (index == length) {
+            // Unescaped trailing spaces are removed
+            return length > 0 && value.charAt(length - 1) == ' ' ? value.trim() : value;
+        }
+
+        final StringBuilder out = new StringBuilder(length + 16);
+        out.append(value, 0, index);
+        for (; index < length; index++) {
+            final char c = value.charAt(index);
+            switch (c) {
+                case ' ':
+                    if (index == 0) {
+                        out.append('\\');
+                    }
+                    out.append(' ');
+                    break;
+                case '\\':
+                    out.append('\\').append('\\');
+                    break;
+                case '\t':
+                    out.append('\\').append('t');
+                    break;
+                case '\n':
+                    out.append('\\').append('n');
+                    break;
+                case '\r':
+                    out.append('\\').append('r');
+                    break;
+                case '\f':
+                    out.append('\\').append('f');
+                    break;
+                case '=':
+                case ':':
+                case '#':
+                case '!':
+                    out.append('\\').append(c);
+                    break;
+                default:
+                    if (c < 0x0020 || c > 0x007e) {
+                        out.append('\\').append('u')
+                                .append(HEX_DIGITS[(c >> 12) & 0xF]).append(HEX_DIGITS[(c >> 8) & 0xF])
+                                .append(HEX_DIGITS[(c >> 4) & 0xF]).append(HEX_DIGITS[c & 0xF]);
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+
+        // Unescaped trailing spaces are removed
+        int end = out.length();
+        while (end > 0 && out.charAt(end - 1) == ' ') {
+            end--;
+        }
+        out.setLength(end);
+        return out.toString();
+    }
+
+    private static boolean needsEscaping(char c, int index) {
+        if (c > ' ' && c < 0x007f) {
+            return c == '\\' || c == '=' || c == ':' || c == '#' || c == '!';
+        }
+        return c != ' ' || index == 0;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.util.envvars;
+
+import hudson.EnvVars;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Immutable environment overlay of installed tools.
+ * The overlay is applied on top of the process environment when the process gets launched.
+ * Overlays are interned, so builds using identical tool sets share a single instance.
+ * @since 0.9
+ */
+@Restricted(NoExternalUse.class)
+public final class ToolsEnvironment {
+
+    private static final Map<ToolsEnvironment, WeakReference<ToolsEnvironment>> INTERNED = new WeakHashMap<>();
+
+    private final @CheckForNull String paths;
+    private final @Nonnull Map<String, String> variables;
+    private final @Nonnull List<VariablesTemplate> additionalVariables;
+    private final int hashCode;
+
+    private ToolsEnvironment(@CheckForNull String paths, @Nonnull Map<String, String> variables,
+            @Nonnull List<VariablesTemplate> additionalVariables) {
+        this.paths = paths;
+        this.variables = Collections.unmodifiableMap(new EnvVars(variables));
+        this.additionalVariables = Collections.unmodifiableList(new ArrayList<>(additionalVariables));
+        this.hashCode = Objects.hash(paths, this.variables, this.additionalVariables);
+    }
+
+    /**
+     * Gets the overlay for the tools.
+     * @param paths Paths to be prepended to {@code PATH} or {@code null} if there is no paths
+     * @param variables Variables to be set, e.g. homes and versions of tools
+     * @param additionalVariables Compiled additional variables of tools.
+     *      They are applied in the specified order
+     * @return Overlay, which may be shared with other builds
+     */
+    public static @Nonnull ToolsEnvironment of(@CheckForNull String paths, @Nonnull Map<String, String> variables,
+            @Nonnull List<VariablesTemplate> additionalVariables) {
+        final ToolsEnvironment created = new ToolsEnvironment(paths, variables, additionalVariables);
+        synchronized (INTERNED) {
+            final WeakReference<ToolsEnvironment> ref = INTERNED.get(created);
+            final ToolsEnvironment existing = ref != null ? ref.get() : null;
+            if (existing != null) {
+                return existing;
+            }
+            INTERNED.put(created, new WeakReference<>(created));
+            return created;
+        }
+    }
+
+    /**
+     * Applies the overlay to the environment of the process.
+     * @param target Environment to be modified
+     */
+    public void applyTo(@Nonnull EnvVars target) {
+        // Inject paths
+        if (paths != null) {
+            target.override("PATH+", paths);
+        }
+
+        // Inject additional variables
+        target.putAll(variables);
+        for (VariablesTemplate template : additionalVariables) {
+            template.injectVariables(target);
+        }
+
+        // Override paths to prevent JENKINS-20560
+        if (target.containsKey("PATH")) {
+            final String overallPaths = target.get("PATH");
+            target.remove("PATH");
+            target.put("PATH+", overallPaths);
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ToolsEnvironment)) {
+            return false;
+        }
+        final ToolsEnvironment other = (ToolsEnvironment) obj;
+        return hashCode == other.hashCode && Objects.equals(paths, other.paths)
+                && variables.equals(other.variables) && additionalVariables.equals(other.additionalVariables);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -18,16 +18,9 @@ package jenkins.plugins.customtools.util.envvars;
 
 import hudson.EnvVars;
 import hudson.model.Node;
-import hudson.slaves.EnvironmentVariablesNodeProperty;
-import hudson.slaves.NodeProperty;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.util.Map;
-import java.util.Properties;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
-import jenkins.model.Jenkins;
 
 /**
  * Substitutes variables.
@@ -60,7 +53,39 @@ public abstract class VariablesSubstitutionHelper {
         if (inputValue == null || !hasMacros(inputValue))
             return inputValue;
 
-        // Substitute parameters
+        // Scan the input once and look up each macro
+        final MacroTemplate template = MacroTemplate.of(inputValue);
+        if (template.nested || hasMacroDelimitersInKeys(environment)) {
+            // The scan cannot tell where such names end, e.g. "${A}B}" for the variable "A}B"
+            return resolveVariableByEntries(inputValue, environment);
+        }
+        final StringBuilder out = new StringBuilder(inputValue.length());
+        out.append(template.literals[0]);
+        for (int i = 0; i < template.names.length; i++) {
+            final String name = template.names[i];
+            // EnvVars ignores the case of keys, but macros are substituted only for the exact name
+            final String key = environment.ceilingKey(name);
+            if (key != null && key.equals(name)) {
+                final String escapedValue = escapeVariableValue(key, environment.get(key));
+                if (mayFormMacros(escapedValue) || escapedValue.isEmpty() && endsWithDollar(out)) {
+                    // Substituted values may produce macros, which are resolved depending on the order of entries.
+                    // Empty values may join the surrounding text into a macro, e.g. "$${EMPTY}{NAME}"
+                    return resolveVariableByEntries(inputValue, environment);
+                }
+                out.append(escapedValue);
+            } else {
+                out.append("${").append(name).append('}');
+            }
+            out.append(template.literals[i + 1]);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Resolves variables by substituting environment entries one by one.
+     * Results may depend on the order of entries if substituted values contain macros.
+     */
+    String resolveVariableByEntries(@Nonnull String inputValue, @Nonnull EnvVars environment) {
         String substitutedString = inputValue;
         for (Map.Entry<String,String> entry : environment.entrySet()) {
             if (hasMacros(inputValue, entry.getKey())) {
@@ -76,36 +101,31 @@ public abstract class VariablesSubstitutionHelper {
         if (!hasMacros(inputValue))
             return inputValue;
 
-        // Check node properties
-        String substitutedString = inputValue;
-        for (NodeProperty<?> entry : node.getNodeProperties()) {
-            substitutedString = substituteNodeProperty(substitutedString, entry);
-        }
-
-        // Substitute global variables
-        for (NodeProperty<?> entry : Jenkins.getActiveInstance().getGlobalNodeProperties()) {
-            substitutedString = substituteNodeProperty(substitutedString, entry);
-        }
+        // Node properties take precedence over global properties
+        return NodeVariables.of(node).resolve(this, inputValue);
+    }
 
-        return substitutedString;
+    /**
+     * Checks if the substituted value may produce new macros with the surrounding text.
+     */
+    static boolean mayFormMacros(@Nonnull String value) {
+        return value.indexOf('$') >= 0 || value.indexOf('{') >= 0 || value.indexOf('}') >= 0;
     }
 
     /**
-     * Substitutes string according to node property.
-     * @param macroString String to be substituted
-     * @param property Node property
-     * @return Substituted string
-     * @since 0.3
+     * Checks if any variable name contains the macro start or end, so it cannot be split from the input by the scan.
      */
-    private String substituteNodeProperty(@CheckForNull String macroString, @CheckForNull NodeProperty<?> property) {
-        // Get environment variables
-        if (property instanceof EnvironmentVariablesNodeProperty) {
-           EnvironmentVariablesNodeProperty prop = (EnvironmentVariablesNodeProperty)property;
-           return resolveVariable(macroString, prop.getEnvVars());
+    private static boolean hasMacroDelimitersInKeys(@Nonnull EnvVars environment) {
+        for (String key : environment.keySet()) {
+            if (key.indexOf('}') >= 0 || key.contains("${")) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        //TODO: add support of other configuration entries or propagate environments
-        return macroString;
+    private static boolean endsWithDollar(@Nonnull StringBuilder text) {
+        return text.length() > 0 && text.charAt(text.length() - 1) == '$';
     }
 
     public static boolean hasMacros(@CheckForNull String inputString) {
@@ -124,22 +144,7 @@ public abstract class VariablesSubstitutionHelper {
 
         @Override
         public String escapeVariableValue(String variableName, String rawValue) {
-            final ByteArrayOutputStream str= new ByteArrayOutputStream();
-            Properties prop = new Properties();
-            prop.setProperty("TMP", rawValue);
-            try {
-                prop.store(str,"tmp");
-            } catch (IOException ex) {
-                // Fallback to the default behavior
-                //TODO: Really???
-                return super.escapeVariableValue(variableName, rawValue);
-            }
-
-            try {
-                return str.toString("UTF-8").split("\n")[2].replaceFirst(".*TMP=", "").trim();
-            } catch (UnsupportedEncodingException ex) {
-                throw new IllegalStateException("UTF-8 encoding is not supported", ex);
-            }
+            return PropertiesValueEscaper.escape(rawValue);
         }
     }
 }
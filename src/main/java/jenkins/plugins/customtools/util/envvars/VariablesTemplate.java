@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.util.envvars;
+
+import com.synopsys.arc.jenkinsci.plugins.customtools.EnvVariablesInjector;
+import hudson.EnvVars;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Compiled form of additional variables of tools.
+ * Each variable is split into literal segments around references to its previous value,
+ * so the injection does not parse properties and does not search the value again.
+ * Injection results are the same as for {@link EnvVariablesInjector}.
+ * @since 0.9
+ */
+@Restricted(NoExternalUse.class)
+public final class VariablesTemplate {
+
+    /**
+     * Maximum number of cached templates.
+     * Substituted variables may differ between builds, so the cache gets reset when it grows above the limit.
+     */
+    private static final int MAX_CACHED = 512;
+
+    private static final ConcurrentMap<String, VariablesTemplate> COMPILED = new ConcurrentHashMap<>();
+
+    private final @Nonnull String source;
+    private final @Nonnull String[] names;
+    /**
+     * Literal segments of each variable.
+     * The previous value of the variable is inserted between the segments.
+     */
+    private final @Nonnull String[][] segments;
+
+    private VariablesTemplate(@Nonnull String source, @Nonnull String[] names, @Nonnull String[][] segments) {
+        this.source = source;
+        this.names = names;
+        this.segments = segments;
+    }
+
+    /**
+     * Gets the compiled template for the additional variables.
+     * @param props Variables in the Java Properties format
+     * @return Compiled template, which may be shared
+     * @throws IOException Cannot load properties from the string
+     */
+    public static @Nonnull VariablesTemplate compile(@Nonnull String props) throws IOException {
+        VariablesTemplate template = COMPILED.get(props);
+        if (template == null) {
+            template = doCompile(props);
+            if (COMPILED.size() >= MAX_CACHED) {
+                COMPILED.clear();
+            }
+            COMPILED.put(props, template);
+        }
+        return template;
+    }
+
+    /**
+     * Discards cached templates. Invoked when the tools configuration gets saved.
+     */
+    public static void invalidateAll() {
+        COMPILED.clear();
+    }
+
+    private static @Nonnull VariablesTemplate doCompile(@Nonnull String props) throws IOException {
+        final Properties prop = new Properties();
+        prop.load(new StringReader(props));
+
+        // Same order as in EnvVariablesInjector
+        final TreeMap<String, String> sorted = new TreeMap<>();
+        for (Map.Entry<Object, Object> entry : prop.entrySet()) {
+            sorted.put((String) entry.getKey(), (String) entry.getValue());
+        }
+
+        final String[] names = new String[sorted.size()];
+        final String[][] segments = new String[sorted.size()][];
+        int i = 0;
+        for (Map.Entry<String, String> entry : sorted.entrySet()) {
+            names[i] = entry.getKey();
+            segments[i] = split(entry.getValue(), "${" + entry.getKey() + "}");
+            i++;
+        }
+        return new VariablesTemplate(props, names, segments);
+    }
+
+    private static @Nonnull String[] split(@Nonnull String value, @Nonnull String reference) {
+        final List<String> out = new ArrayList<>(2);
+        int start = 0;
+        int index;
+        while ((index = value.indexOf(reference, start)) >= 0) {
+            out.add(value.substring(start, index));
+            start = index + reference.length();
+        }
+        out.add(value.substring(start));
+        return out.toArray(new String[0]);
+    }
+
+    /**
+     * Gets the source of the template.
+     * @return Variables in the Java Properties format
+     */
+    public @Nonnull String getSource() {
+        return source;
+    }
+
+    /**
+     * Injects variables into the environment.
+     * @param target Environment to be modified
+     */
+    public void injectVariables(@Nonnull EnvVars target) {
+        for (int i = 0; i < names.length; i++) {
+            final String[] parts = segments[i];
+            if (parts.length == 1) {
+                target.put(names[i], parts[0]);
+                continue;
+            }
+
+            final String previous = target.getOrDefault(names[i], "");
+            final StringBuilder value = new StringBuilder(parts[0]);
+            for (int j = 1; j < parts.length; j++) {
+                value.append(previous).append(parts[j]);
+            }
+            target.put(names[i], value.toString());
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || obj instanceof VariablesTemplate && source.equals(((VariablesTemplate) obj).source);
+    }
+
+    @Override
+    public int hashCode() {
+        return source.hashCode();
+    }
+}
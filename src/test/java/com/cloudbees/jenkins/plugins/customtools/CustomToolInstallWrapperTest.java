@@ -18,20 +18,47 @@ package com.cloudbees.jenkins.plugins.customtools;
 import com.synopsys.arc.jenkins.plugins.customtools.util.CommandCallerInstaller;
 import com.synopsys.arc.jenkins.plugins.customtools.util.StubWrapper;
 import com.synopsys.arc.jenkinsci.plugins.customtools.multiconfig.MulticonfigWrapperOptions;
+import com.synopsys.arc.jenkinsci.plugins.customtools.versions.ToolVersionConfig;
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
 import hudson.model.FreeStyleBuild;
 import hudson.model.FreeStyleProject;
+import hudson.model.Node;
 import hudson.model.Result;
+import hudson.model.TaskListener;
+import hudson.slaves.DumbSlave;
 import hudson.tasks.BuildWrapper;
 import hudson.tasks.Builder;
 import hudson.tasks.Shell;
+import hudson.tools.CommandInstaller;
+import hudson.tools.InstallSourceProperty;
+import hudson.tools.ToolInstallation;
+import hudson.tools.ToolInstaller;
+import hudson.tools.ToolInstallerDescriptor;
+import hudson.tools.ToolProperty;
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import jenkins.plugins.customtools.CustomToolsGlobalConfiguration;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.Issue;
 import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestBuilder;
+import org.jvnet.hudson.test.TestExtension;
 
 /**
  * Contains tests for {@link CustomToolInstallWrapper}.
@@ -45,6 +72,8 @@ public class CustomToolInstallWrapperTest {
 
     private static final String NON_EXISTENT_TOOL = "non-existent";
 
+    private static final String CACHE_HIT = "Using the installation cached for the node";
+
     /**
      * Inserts {@link CustomToolInstallWrapper} after {@link StubWrapper}.
      * @throws Exception Test failure
@@ -97,14 +126,7 @@ public class CustomToolInstallWrapperTest {
     @Test
     public void testDeletedTool() throws Exception {
         FreeStyleProject project = j.createFreeStyleProject();
-
-        CustomToolInstallWrapper.SelectedTool[] tools =
-                new CustomToolInstallWrapper.SelectedTool[] {
-                    new CustomToolInstallWrapper.SelectedTool(NON_EXISTENT_TOOL)
-                };
-
-        project.getBuildWrappersList().add(
-                new CustomToolInstallWrapper(tools, MulticonfigWrapperOptions.DEFAULT, false));
+        project.getBuildWrappersList().add(createWrapper(NON_EXISTENT_TOOL));
 
         Future<FreeStyleBuild> build = project.scheduleBuild2(0);
         j.assertBuildStatus(Result.FAILURE, build.get());
@@ -112,6 +134,161 @@ public class CustomToolInstallWrapperTest {
                 Messages.CustomTool_GetToolByName_ErrorMessage(NON_EXISTENT_TOOL), build.get());
     }
 
+    @Test
+    public void testParallelInstallation() throws Exception {
+        // Each installer waits until all of them have started, sequential installations would time out
+        BlockingInstaller.reset(3, 0);
+        createAgentWithTools(createTool("ToolA", new BlockingInstaller(false)),
+                createTool("ToolB", new BlockingInstaller(false)), createTool("ToolC", new BlockingInstaller(false)));
+        CustomToolInstallWrapper wrapper = createWrapper("ToolA", "ToolB", "ToolC");
+        wrapper.setParallelInstallations(3);
+
+        // Paths should be exported in the order of the tool selection
+        FreeStyleProject project = createProject(new Shell("echo \"$PATH\" | grep \"ToolA.*ToolB.*ToolC\"\n"
+                + "test -n \"$ToolA_HOME\" -a -n \"$ToolB_HOME\" -a -n \"$ToolC_HOME\""), wrapper);
+
+        j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+    }
+
+    @Test
+    public void testParallelInstallationFailure() throws Exception {
+        // Installers of the healthy tools block until they get cancelled
+        BlockingInstaller.reset(3, 1);
+        createAgentWithTools(createTool("ToolA", new BlockingInstaller(false)),
+                createTool("Broken", new BlockingInstaller(true)), createTool("ToolC", new BlockingInstaller(false)));
+        CustomToolInstallWrapper wrapper = createWrapper("ToolA", "Broken", "ToolC");
+        wrapper.setParallelInstallations(3);
+        FreeStyleProject project = createProject(new Shell("exit 0"), wrapper);
+
+        j.assertBuildStatus(Result.FAILURE, project.scheduleBuild2(0).get());
+        assertTrue("The failure should interrupt other installations",
+                BlockingInstaller.cancelled.await(30, TimeUnit.SECONDS));
+        assertEquals("Other installations should not complete", 1, BlockingInstaller.released.getCount());
+    }
+
+    @Test
+    public void testInstallationDuringCheckout() throws Exception {
+        createAgentWithTools(createTool("ToolA", "toola"));
+        CustomToolInstallWrapper wrapper = createWrapper("ToolA");
+        wrapper.setInstallDuringCheckout(true);
+        FreeStyleProject project = createProject(new Shell("toola && test -n \"$ToolA_HOME\""), wrapper);
+
+        FreeStyleBuild build = j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+        j.assertLogContains("Installing tools in background during the checkout", build);
+    }
+
+    @Test
+    public void testNestedWrappersInstallingDuringCheckout() throws Exception {
+        createAgentWithTools(createTool("ToolA", "toola"), createTool("ToolB", "toolb"));
+        CustomToolInstallWrapper wrapperA = createWrapper("ToolA");
+        wrapperA.setInstallDuringCheckout(true);
+        CustomToolInstallWrapper wrapperB = createWrapper("ToolB");
+        wrapperB.setInstallDuringCheckout(true);
+        // Each wrapper joins its own installation
+        FreeStyleProject project = createProject(
+                new Shell("toola && toolb && test -n \"$ToolA_HOME\" -a -n \"$ToolB_HOME\""), wrapperA, wrapperB);
+
+        FreeStyleBuild build = j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+        j.assertLogContains("Waiting for the background installation of tools", build);
+    }
+
+    @Test
+    public void testEnvironmentDelta() throws Exception {
+        CustomToolsGlobalConfiguration.get().setSendEnvironmentDelta(true);
+        createAgentWithTools(createTool("ToolA", "toola"));
+        // Variables of the agent are inherited, tool paths are prepended
+        FreeStyleProject project = createProject(new Shell("toola && test -n \"$ToolA_HOME\" -a -n \"$HOME\"\n"
+                + "echo \"$PATH\" | grep \"^[^:]*ToolA\""), createWrapper("ToolA"));
+
+        j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+    }
+
+    @Test
+    public void testConcurrentBuildsShareInstallation() throws Exception {
+        j.jenkins.setNumExecutors(2);
+        File installations = new File(j.jenkins.getRootDir(), "installations.log");
+        CustomTool.DescriptorImpl tools = j.jenkins.getDescriptorByType(CustomTool.DescriptorImpl.class);
+        tools.setInstallations(createTool("ToolA", new CommandInstaller(null, "echo installed >> '"
+                + installations.getAbsolutePath() + "' && sleep 3 && ln -sf `which true` toola", "./")));
+
+        List<Future<FreeStyleBuild>> builds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            builds.add(createProject(new Shell("toola"), createWrapper("ToolA")).scheduleBuild2(0));
+        }
+
+        boolean waited = false;
+        for (Future<FreeStyleBuild> build : builds) {
+            waited |= JenkinsRule.getLog(j.assertBuildStatusSuccess(build)).contains("Waiting for the concurrent installation");
+        }
+        assertTrue("One of the builds should join the running installation", waited);
+        assertEquals("The installer should be invoked once", "installed\n",
+                new String(Files.readAllBytes(installations.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCachedInstallations() throws Exception {
+        CustomToolsGlobalConfiguration.get().setCacheInstallations(true);
+        DumbSlave agent = createAgentWithTools(createTool("ToolA", "toola"));
+        FreeStyleProject project = createProject(new Shell("toola && test -n \"$ToolA_HOME\""), createWrapper("ToolA"));
+
+        FreeStyleBuild build = j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+        j.assertLogNotContains(CACHE_HIT, build);
+        build = j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+        j.assertLogContains(CACHE_HIT, build);
+
+        // Saving the configuration invalidates the cache
+        j.jenkins.getDescriptorByType(CustomTool.DescriptorImpl.class).setInstallations(createTool("ToolA", "toola"));
+        build = j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+        j.assertLogNotContains(CACHE_HIT, build);
+        build = j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+        j.assertLogContains(CACHE_HIT, build);
+
+        // Reconnection of the agent invalidates the cache
+        agent.toComputer().disconnect(null).get();
+        agent.toComputer().connect(false).get();
+        j.waitOnline(agent);
+        build = j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+        j.assertLogNotContains(CACHE_HIT, build);
+    }
+
+    @Test
+    public void testCachedInstallationWithDeletedHome() throws Exception {
+        CustomToolsGlobalConfiguration.get().setCacheInstallations(true);
+        createAgentWithTools(createTool("ToolA", "toola"));
+        // The home is deleted behind the back of Jenkins
+        FreeStyleProject project = createProject(new Shell("toola && rm -rf \"$ToolA_HOME\""), createWrapper("ToolA"));
+
+        j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+        FreeStyleBuild build = j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+        j.assertLogNotContains(CACHE_HIT, build);
+    }
+
+    @Test
+    public void testEnvironmentReusedAcrossLaunches() throws Exception {
+        createAgentWithTools(createTool("ToolA", "toola"));
+        FreeStyleProject project = createProject(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener)
+                    throws InterruptedException, IOException {
+                // Each launch gets the tools on top of its own environment, even if the environment changes back
+                for (String value : new String[] {"first", "second", "first"}) {
+                    EnvVars env = build.getEnvironment(listener);
+                    env.put("LAUNCH_VAR", value);
+                    int exitCode = launcher.launch().envs(env).stdout(listener).cmds("sh", "-c",
+                            "toola && test -n \"$ToolA_HOME\" -a \"$LAUNCH_VAR\" = " + value).join();
+                    if (exitCode != 0) {
+                        return false;
+                    }
+                }
+                // Processes launched without an environment get the tools as well
+                return launcher.launch().stdout(listener).cmds("sh", "-c", "toola && test -z \"$LAUNCH_VAR\"")
+                        .join() == 0;
+            }
+        }, createWrapper("ToolA"));
+
+        j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+    }
+
     /**
      * Implements tests for nested wrappers.
      * The test checks that environment variables have been set correctly.
@@ -138,11 +315,44 @@ public class CustomToolInstallWrapperTest {
             throws IOException {
         CustomTool.DescriptorImpl tools = j.jenkins.getDescriptorByType(CustomTool.DescriptorImpl.class);
         tools.setInstallations(CustomToolInstallerTest.createTool("MyTrue"));
-        CustomToolInstallWrapper.SelectedTool selectedTool = new CustomToolInstallWrapper.SelectedTool("MyTrue");
+        return createWrapper("MyTrue");
+    }
 
-        return new CustomToolInstallWrapper(
-                new CustomToolInstallWrapper.SelectedTool[] { selectedTool },
-                MulticonfigWrapperOptions.DEFAULT, false);
+    /**
+     * Creates an agent for the builds and configures the tools.
+     */
+    private DumbSlave createAgentWithTools(CustomTool... installations) throws Exception {
+        j.jenkins.setNumExecutors(0);
+        DumbSlave agent = j.createSlave();
+        j.jenkins.getDescriptorByType(CustomTool.DescriptorImpl.class).setInstallations(installations);
+        return agent;
+    }
+
+    private static CustomToolInstallWrapper createWrapper(String... toolNames) {
+        CustomToolInstallWrapper.SelectedTool[] selectedTools = new CustomToolInstallWrapper.SelectedTool[toolNames.length];
+        for (int i = 0; i < toolNames.length; i++) {
+            selectedTools[i] = new CustomToolInstallWrapper.SelectedTool(toolNames[i]);
+        }
+        return new CustomToolInstallWrapper(selectedTools, MulticonfigWrapperOptions.DEFAULT, false);
+    }
+
+    private FreeStyleProject createProject(Builder builder, BuildWrapper... wrappers) throws IOException {
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.getBuildWrappersList().addAll(Arrays.asList(wrappers));
+        project.getBuildersList().add(builder);
+        return project;
+    }
+
+    private static CustomTool createTool(String name, String command) {
+        return createTool(name, new CommandInstaller(null, "ln -sf `which true` " + command, "./"));
+    }
+
+    private static CustomTool createTool(String name, ToolInstaller installer) {
+        List<ToolInstaller> installers = new ArrayList<>();
+        installers.add(installer);
+        List<ToolProperty<ToolInstallation>> properties = new ArrayList<>();
+        properties.add(new InstallSourceProperty(installers));
+        return new CustomTool(name, null, properties, "./", null, ToolVersionConfig.DEFAULT, null);
     }
 
     private Builder checkVariableBuilder(String varName, String varValue) {
@@ -150,4 +360,59 @@ public class CustomToolInstallWrapperTest {
                 varValue + "\" ] ; then \n  echo Test failed \n  exit -1 \n" +
                 "else \n  echo OK:"+varName+"="+varValue+" \nfi");
     }
+
+    /**
+     * Installer, which waits until all installers of the build have started.
+     * The state is static, because installers get serialized with the configuration.
+     */
+    public static class BlockingInstaller extends ToolInstaller {
+
+        static CountDownLatch started;
+        static CountDownLatch released;
+        static CountDownLatch cancelled;
+
+        private final boolean broken;
+
+        public BlockingInstaller(boolean broken) {
+            super(null);
+            this.broken = broken;
+        }
+
+        static void reset(int installers, int releases) {
+            started = new CountDownLatch(installers);
+            released = new CountDownLatch(releases);
+            cancelled = new CountDownLatch(installers - 1);
+        }
+
+        @Override
+        public FilePath performInstallation(ToolInstallation tool, Node node, TaskListener log)
+                throws IOException, InterruptedException {
+            started.countDown();
+            try {
+                if (!started.await(30, TimeUnit.SECONDS)) {
+                    throw new AbortException(tool.getName() + " has not been installed concurrently with other tools");
+                }
+                if (broken) {
+                    throw new AbortException(tool.getName() + " is broken");
+                }
+                if (!released.await(60, TimeUnit.SECONDS)) {
+                    throw new AbortException(tool.getName() + " has not been released");
+                }
+            } catch (InterruptedException ex) {
+                cancelled.countDown();
+                throw ex;
+            }
+            FilePath home = preferredLocation(tool, node);
+            home.mkdirs();
+            return home;
+        }
+
+        @TestExtension
+        public static class DescriptorImpl extends ToolInstallerDescriptor<BlockingInstaller> {
+            @Override
+            public String getDisplayName() {
+                return "Blocking installer";
+            }
+        }
+    }
 }
@@ -16,6 +16,7 @@
 
 package com.cloudbees.jenkins.plugins.customtools;
 
+import hudson.AbortException;
 import hudson.EnvVars;
 import hudson.FilePath;
 import hudson.model.FreeStyleBuild;
@@ -31,19 +32,33 @@ import hudson.tools.InstallSourceProperty;
 import hudson.tools.ToolInstallation;
 import hudson.util.StreamTaskListener;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Future;
 
 import com.cloudbees.jenkins.plugins.customtools.CustomTool.DescriptorImpl;
+import com.cwctravel.hudson.plugins.extended_choice_parameter.ExtendedChoiceParameterDefinition;
 import com.synopsys.arc.jenkinsci.plugins.customtools.LabelSpecifics;
+import com.synopsys.arc.jenkinsci.plugins.customtools.PathsList;
 import com.synopsys.arc.jenkinsci.plugins.customtools.multiconfig.MulticonfigWrapperOptions;
 import com.synopsys.arc.jenkinsci.plugins.customtools.versions.ToolVersionConfig;
+import com.synopsys.arc.jenkinsci.plugins.customtools.versions.ToolVersionHelper;
 import jenkins.model.Jenkins;
+import jenkins.plugins.customtools.ToolsSnapshot;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.jvnet.hudson.test.Issue;
 import org.jvnet.hudson.test.JenkinsRule;
 
@@ -52,6 +67,9 @@ public class CustomToolInstallerTest {
     @Rule
     public JenkinsRule j = new JenkinsRule();
 
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
     private DescriptorImpl tools;
 
     @Test
@@ -89,6 +107,114 @@ public class CustomToolInstallerTest {
 
     }
 
+    @Test
+    public void testToolIndex() throws Exception {
+        tools = j.jenkins.getDescriptorByType(DescriptorImpl.class);
+        CustomTool versioned = new CustomTool("Versioned", null, null, null, null, new ToolVersionConfig(
+                new ExtendedChoiceParameterDefinition("VERSIONED_VERSION", ExtendedChoiceParameterDefinition.PARAMETER_TYPE_TEXT_BOX,
+                        "1.0", null, null, "1.0", null, null, false, 5, "description")), null);
+        CustomTool first = createTool("MyTrue");
+        tools.setInstallations(first, versioned, createTool("MyTrue"));
+
+        assertSame("The first tool with the name should be returned", first, tools.byName("MyTrue"));
+        assertSame(versioned, tools.byName("Versioned"));
+        assertNull(tools.byName("Missing"));
+        assertEquals(Collections.singletonList(versioned), ToolVersionHelper.getAllVersionedTools());
+
+        // The index is rebuilt when the configuration is reloaded
+        tools.load();
+        assertEquals("Versioned", tools.byName("Versioned").getName());
+        tools.setInstallations();
+        assertNull(tools.byName("MyTrue"));
+        assertTrue(ToolVersionHelper.getAllVersionedTools().isEmpty());
+    }
+
+    @Test
+    public void testToolsSnapshot() throws Exception {
+        tools = j.jenkins.getDescriptorByType(DescriptorImpl.class);
+        CustomTool tool = createTool("MyTrue");
+        tools.setInstallations(tool);
+        ToolsSnapshot snapshot = tools.getSnapshot();
+
+        // Saving the configuration does not modify snapshots taken by running builds
+        tools.setInstallations(createTool("Other"));
+        assertSame(tool, snapshot.byName("MyTrue"));
+        assertEquals(1, snapshot.getInstallations().length);
+        assertNull(tools.byName("MyTrue"));
+        assertTrue("Generation should grow", tools.getSnapshot().getGeneration() > snapshot.getGeneration());
+
+        // The configuration is written before the method returns
+        assertTrue(tools.getConfigFile().asString().contains("Other"));
+    }
+
+    @Test
+    public void testVersionedHomes() throws Exception {
+        ToolVersionConfig versionConfig = new ToolVersionConfig(new ExtendedChoiceParameterDefinition("TOOL_VERSION",
+                ExtendedChoiceParameterDefinition.PARAMETER_TYPE_TEXT_BOX, "1.0", null, null, "1.0", null, null,
+                false, 5, "description"));
+        versionConfig.setVersionedHomes(true);
+        List<ToolInstaller> installers = new ArrayList<>();
+        installers.add(new CommandInstaller(null, "ln -s `which true` mytrue", "./"));
+        List<ToolProperty<ToolInstallation>> properties = new ArrayList<>();
+        properties.add(new InstallSourceProperty(installers));
+        CustomTool tool = new CustomTool("MyTrue", null, properties, "./", null, versionConfig, null);
+
+        TaskListener listener = StreamTaskListener.fromStdout();
+        String home1 = tool.forVersion("1.0").forNode(j.jenkins, listener).getHome();
+        String home2 = tool.forVersion("2.0").forNode(j.jenkins, listener).getHome();
+
+        assertNotEquals("Versions should be installed to different homes", home1, home2);
+        assertTrue(home1.endsWith("1.0"));
+        assertTrue(new FilePath(new File(home1)).child("mytrue").exists());
+        assertTrue(new FilePath(new File(home2)).child("mytrue").exists());
+        assertTrue("Version must not escape the tool directory",
+                tool.forVersion("..").getHome().endsWith("__"));
+        assertEquals("Fingerprints of versioned copies should be stable",
+                tool.forVersion("1.0").getConfigFingerprint(), tool.forVersion("1.0").getConfigFingerprint());
+        assertNotEquals(tool.forVersion("1.0").getConfigFingerprint(), tool.forVersion("2.0").getConfigFingerprint());
+
+        // Homes of tools without installers are managed by users
+        CustomTool preinstalled = new CustomTool("Preinstalled", "/opt/tool", Collections.emptyList(), "./", null,
+                versionConfig, null);
+        assertSame(preinstalled, preinstalled.forVersion("1.0"));
+    }
+
+    @Test
+    public void testPathsOfSeveralTools() throws Exception {
+        File homeA = tmp.newFolder("ToolA");
+        File homeB = tmp.newFolder("ToolB");
+        File homeC = tmp.newFolder("ToolC");
+        for (File home : new File[] {homeA, homeB, homeC}) {
+            assertTrue(new File(home, "bin").mkdir());
+            assertTrue(new File(home, "lib").mkdir());
+        }
+        CustomTool toolA = new CustomTool("ToolA", homeA.getPath(), null, "bin, missingA", null,
+                ToolVersionConfig.DEFAULT, null);
+        CustomTool toolB = new CustomTool("ToolB", homeB.getPath(), null, "lib, bin", null,
+                ToolVersionConfig.DEFAULT, null);
+        CustomTool toolC = new CustomTool("ToolC", homeC.getPath(), null, "missingC", null,
+                ToolVersionConfig.DEFAULT, null);
+
+        // Errors of all tools are reported at once in the order of tools
+        try {
+            CustomTool.getPaths(j.jenkins, Arrays.asList(toolA, toolB, toolC));
+            fail("Misconfigured exported paths should abort the resolution");
+        } catch (AbortException ex) {
+            assertEquals("ToolA: Wrong EXPORTED_PATHS configuration. Can't find " + new File(homeA, "missingA").getPath()
+                    + "\nToolC: Wrong EXPORTED_PATHS configuration. Can't find " + new File(homeC, "missingC").getPath(),
+                    ex.getMessage());
+        }
+
+        // Valid paths keep the configured order
+        CustomTool fixedA = new CustomTool("ToolA", homeA.getPath(), null, "bin", null, ToolVersionConfig.DEFAULT, null);
+        List<PathsList> paths = CustomTool.getPaths(j.jenkins, Arrays.asList(toolB, fixedA));
+        assertEquals(2, paths.size());
+        assertEquals(Arrays.asList(new File(homeB, "lib").getAbsolutePath(), new File(homeB, "bin").getAbsolutePath()),
+                paths.get(0).paths);
+        assertEquals(homeB.getAbsolutePath(), paths.get(0).getHomeDir());
+        assertEquals(Collections.singletonList(new File(homeA, "bin").getAbsolutePath()), paths.get(1).paths);
+    }
+
     //TODO: Just a stub for testing. Make the test automatic
     @Issue("JENKINS-19889")
     @Ignore @Test
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.install;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import hudson.FilePath;
+import hudson.Functions;
+import hudson.model.TaskListener;
+import hudson.slaves.DumbSlave;
+import hudson.tools.CommandInstaller;
+import hudson.tools.InstallSourceProperty;
+import hudson.tools.ToolInstallation;
+import hudson.tools.ToolInstaller;
+import hudson.tools.ToolProperty;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+/**
+ * Tests of {@link InstallationLock} and of installations guarded by it.
+ */
+public class InstallationLockTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void concurrentInstallationsRunInstallersOnce() throws Exception {
+        assumeFalse(Functions.isWindows());
+        List<ToolInstaller> installers = new ArrayList<>();
+        installers.add(new CommandInstaller(null, "echo installed >> ../installations.log && sleep 3", "./"));
+        List<ToolProperty<ToolInstallation>> properties = new ArrayList<>();
+        properties.add(new InstallSourceProperty(installers));
+        CustomTool tool = new CustomTool("Locked", null, properties, null, null, null, null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // The opt-in skip of up-to-date installations is disabled
+            Future<String> first = executor.submit(
+                    () -> InstallationManifest.translateFor(tool, j.jenkins, TaskListener.NULL, false));
+            Thread.sleep(1000);
+            Future<String> second = executor.submit(
+                    () -> InstallationManifest.translateFor(tool, j.jenkins, TaskListener.NULL, false));
+            assertEquals(first.get(), second.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        FilePath root = InstallationManifest.getInstallationRoot(tool, j.jenkins);
+        assertEquals("The waiting installation should reuse the completed one",
+                "installed\n", root.sibling("installations.log").readToString());
+
+        // Without waiting, installers are invoked again
+        InstallationManifest.translateFor(tool, j.jenkins, TaskListener.NULL, false);
+        assertEquals("installed\ninstalled\n", root.sibling("installations.log").readToString());
+    }
+
+    @Test
+    public void interruptedThreadReleasesLock() throws Exception {
+        DumbSlave agent = j.createOnlineSlave();
+        FilePath root = agent.getRootPath().child("tools").child("locked");
+        InstallationLock lock = InstallationLock.acquire(root);
+
+        // Aborted builds release locks with the interrupted flag set
+        Thread.currentThread().interrupt();
+        try {
+            lock.close();
+        } finally {
+            assertTrue("The interrupted flag should be restored", Thread.interrupted());
+        }
+
+        InstallationLock again = InstallationLock.tryAcquire(root);
+        assertNotNull("The lock should have been released", again);
+        again.close();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.install;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import hudson.FilePath;
+import hudson.Functions;
+import hudson.tools.CommandInstaller;
+import hudson.tools.InstallSourceProperty;
+import hudson.tools.ToolInstallation;
+import hudson.tools.ToolInstaller;
+import hudson.tools.ToolProperty;
+import hudson.util.StreamTaskListener;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+/**
+ * Tests of {@link InstallationManifest}.
+ */
+public class InstallationManifestTest {
+
+    private static final String UP_TO_DATE = "is up to date";
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void skipsUpToDateInstallations() throws Exception {
+        assumeFalse(Functions.isWindows());
+        CustomTool tool = createTool("echo installed >> ../installations.log");
+        FilePath log = InstallationManifest.getInstallationRoot(tool, j.jenkins).sibling("installations.log");
+
+        assertFalse(install(tool).contains(UP_TO_DATE));
+        assertTrue(install(tool).contains(UP_TO_DATE));
+        assertEquals("installed\n", log.readToString());
+
+        // The skip is opt-in
+        InstallationManifest.translateFor(tool, j.jenkins, StreamTaskListener.fromStdout(), false);
+        assertEquals("installed\ninstalled\n", log.readToString());
+    }
+
+    @Test
+    public void reinstallsOnMismatch() throws Exception {
+        assumeFalse(Functions.isWindows());
+        CustomTool tool = createTool("mkdir -p bin && echo installed >> ../installations.log", "bin");
+        FilePath root = InstallationManifest.getInstallationRoot(tool, j.jenkins);
+        FilePath log = root.sibling("installations.log");
+        install(tool);
+
+        // Changed configuration
+        CustomTool changed = createTool("mkdir -p bin && echo changed >> ../installations.log", "bin");
+        assertFalse(install(changed).contains(UP_TO_DATE));
+        assertEquals("installed\nchanged\n", log.readToString());
+        assertTrue(install(changed).contains(UP_TO_DATE));
+
+        // Home deleted outside of Jenkins
+        root.child("bin").deleteRecursive();
+        assertFalse(install(changed).contains(UP_TO_DATE));
+        assertEquals("installed\nchanged\nchanged\n", log.readToString());
+    }
+
+    @Test
+    public void keepsManifestOfUnchangedInstallations() throws Exception {
+        assumeFalse(Functions.isWindows());
+        CustomTool tool = createTool("[ -e tool ] || touch tool");
+        FilePath manifest = InstallationManifest.getInstallationRoot(tool, j.jenkins)
+                .child(InstallationManifest.MANIFEST_FILE);
+
+        InstallationManifest.translateFor(tool, j.jenkins, StreamTaskListener.fromStdout(), false);
+        String written = manifest.readToString();
+        long modified = manifest.lastModified();
+        assertFalse("Sizes should not be recorded without the opt-in",
+                written.contains(InstallationManifest.TOTAL_SIZE));
+
+        // Ensure that a rewrite would change the modification time
+        Thread.sleep(1100);
+        InstallationManifest.translateFor(tool, j.jenkins, StreamTaskListener.fromStdout(), false);
+        assertEquals("The manifest should not be rewritten", written, manifest.readToString());
+        assertEquals(modified, manifest.lastModified());
+    }
+
+    private String install(CustomTool tool) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        InstallationManifest.translateFor(tool, j.jenkins, new StreamTaskListener(out, StandardCharsets.UTF_8), true);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static CustomTool createTool(String command) {
+        return createTool(command, "./");
+    }
+
+    private static CustomTool createTool(String command, String toolHome) {
+        List<ToolInstaller> installers = new ArrayList<>();
+        installers.add(new CommandInstaller(null, command, toolHome));
+        List<ToolProperty<ToolInstallation>> properties = new ArrayList<>();
+        properties.add(new InstallSourceProperty(installers));
+        return new CustomTool("Manifested", null, properties, null, null, null, null);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.install;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import com.synopsys.arc.jenkinsci.plugins.customtools.LabelSpecifics;
+import hudson.EnvVars;
+import hudson.slaves.EnvironmentVariablesNodeProperty;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+/**
+ * Tests of {@link ToolPlan}.
+ */
+public class ToolPlanTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void bindMatchesNodeAndEnvironmentSubstitution() throws Exception {
+        j.jenkins.getGlobalNodeProperties().add(new EnvironmentVariablesNodeProperty(
+                new EnvironmentVariablesNodeProperty.Entry("TOOLS", "/opt/tools")));
+        j.jenkins.save();
+        CustomTool tool = new CustomTool("MyTool", null, null, "${TOOLS}/${BUILD_DIR}/bin:static", new LabelSpecifics[] {
+                new LabelSpecifics(null, "ARCH=${ARCH}", "${TOOLS}/${ARCH}"),
+                new LabelSpecifics("missing-label", "ARCH=${ARCH}", "${ARCH}")
+            }, null, "TOOL_HOME=${TOOLS}/${BUILD_DIR}");
+        EnvVars buildEnv = new EnvVars("BUILD_DIR", "build", "ARCH", "x64");
+
+        CustomTool expected = tool.forInstalledHome(j.jenkins, "${TOOLS}/home").forEnvironment(buildEnv);
+        CustomTool bound = tool.getPlan().bind(j.jenkins, "${TOOLS}/home", buildEnv);
+
+        assertEquals("/opt/tools/home", bound.getHome());
+        assertEquals(expected.getHome(), bound.getHome());
+        assertEquals(expected.getExportedPaths(), bound.getExportedPaths());
+        assertEquals(expected.getAdditionalVariables(), bound.getAdditionalVariables());
+        List<LabelSpecifics> expectedSpecifics = expected.getAppliedSpecifics(j.jenkins);
+        List<LabelSpecifics> boundSpecifics = bound.getAppliedSpecifics(j.jenkins);
+        assertEquals(1, boundSpecifics.size());
+        assertEquals(expectedSpecifics.get(0).getExportedPaths(), boundSpecifics.get(0).getExportedPaths());
+        assertEquals(expectedSpecifics.get(0).getAdditionalVars(), boundSpecifics.get(0).getAdditionalVars());
+
+        // The plan is compiled once per tool
+        assertSame(tool.getPlan(), tool.getPlan());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void bindRequiresHome() {
+        new CustomTool("MyTool", null, null, null, null, null, null).getPlan().bind(j.jenkins, null, new EnvVars());
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.install;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import com.synopsys.arc.jenkinsci.plugins.customtools.versions.ToolVersionConfig;
+import hudson.FilePath;
+import hudson.slaves.DumbSlave;
+import hudson.tools.CommandInstaller;
+import hudson.tools.InstallSourceProperty;
+import hudson.tools.ToolInstallation;
+import hudson.tools.ToolInstaller;
+import hudson.tools.ToolProperty;
+import java.util.ArrayList;
+import java.util.List;
+import jenkins.plugins.customtools.CustomToolsGlobalConfiguration;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+/**
+ * Tests of {@link ToolPrefetcher}.
+ */
+public class ToolPrefetcherTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void prefetchesSelectedToolsOnOnline() throws Exception {
+        CustomToolsGlobalConfiguration config = CustomToolsGlobalConfiguration.get();
+        config.setPrefetchTools(true);
+        config.setPrefetchedToolNames("ToolA");
+        CustomTool.DescriptorImpl tools = j.jenkins.getDescriptorByType(CustomTool.DescriptorImpl.class);
+        CustomTool toolA = createTool("ToolA");
+        CustomTool toolB = createTool("ToolB");
+        tools.setInstallations(toolA, toolB);
+
+        DumbSlave agent = j.createOnlineSlave();
+        String homeA = ToolUsageRegistry.getManagedHome(toolA, agent);
+        String homeB = ToolUsageRegistry.getManagedHome(toolB, agent);
+        assertNotNull(homeA);
+        assertNotNull(homeB);
+
+        FilePath installed = agent.createPath(homeA).child("installed");
+        for (int i = 0; i < 300 && !installed.exists(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue("Selected tool should be prefetched", installed.exists());
+        assertFalse("Other tools should not be prefetched", agent.createPath(homeB).exists());
+    }
+
+    private CustomTool createTool(String name) {
+        List<ToolInstaller> installers = new ArrayList<>();
+        installers.add(new CommandInstaller(null, "touch installed", "./"));
+        List<ToolProperty<ToolInstallation>> properties = new ArrayList<>();
+        properties.add(new InstallSourceProperty(installers));
+        return new CustomTool(name, null, properties, null, null, ToolVersionConfig.DEFAULT, null);
+    }
+}
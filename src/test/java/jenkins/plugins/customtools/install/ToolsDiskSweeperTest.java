@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.install;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import com.cloudbees.jenkins.plugins.customtools.CustomToolInstallWrapper;
+import com.synopsys.arc.jenkinsci.plugins.customtools.multiconfig.MulticonfigWrapperOptions;
+import com.synopsys.arc.jenkinsci.plugins.customtools.versions.ToolVersionConfig;
+import hudson.model.FreeStyleProject;
+import hudson.slaves.DumbSlave;
+import hudson.tools.CommandInstaller;
+import hudson.tools.InstallSourceProperty;
+import hudson.tools.ToolInstallation;
+import hudson.tools.ToolInstaller;
+import hudson.tools.ToolProperty;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+/**
+ * Tests of {@link ToolsDiskSweeper}.
+ */
+public class ToolsDiskSweeperTest {
+
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void evictsLeastRecentlyUsedInstallations() throws Exception {
+        j.jenkins.setNumExecutors(0);
+        DumbSlave agent = j.createSlave();
+        CustomTool.DescriptorImpl tools = j.jenkins.getDescriptorByType(CustomTool.DescriptorImpl.class);
+        CustomTool toolA = createTool("ToolA");
+        CustomTool toolB = createTool("ToolB");
+        tools.setInstallations(toolA, toolB);
+
+        j.buildAndAssertSuccess(createProject("ToolA"));
+        j.buildAndAssertSuccess(createProject("ToolB"));
+        String homeA = ToolUsageRegistry.getManagedHome(toolA, agent);
+        String homeB = ToolUsageRegistry.getManagedHome(toolB, agent);
+
+        List<String> evicted = ToolsDiskSweeper.sweep(agent, MEGABYTE);
+
+        assertEquals("Only the least recently used tool should be evicted", 1, evicted.size());
+        assertFalse(agent.createPath(homeA).exists());
+        assertTrue(agent.createPath(homeB).exists());
+    }
+
+    @Test
+    public void keepsLockedInstallations() throws Exception {
+        j.jenkins.setNumExecutors(0);
+        DumbSlave agent = j.createSlave();
+        CustomTool.DescriptorImpl tools = j.jenkins.getDescriptorByType(CustomTool.DescriptorImpl.class);
+        CustomTool toolA = createTool("ToolA");
+        CustomTool toolB = createTool("ToolB");
+        tools.setInstallations(toolA, toolB);
+
+        j.buildAndAssertSuccess(createProject("ToolA"));
+        j.buildAndAssertSuccess(createProject("ToolB"));
+        String homeA = ToolUsageRegistry.getManagedHome(toolA, agent);
+        String homeB = ToolUsageRegistry.getManagedHome(toolB, agent);
+
+        List<String> evicted;
+        try (InstallationLock lock = InstallationLock.acquire(agent.createPath(homeA))) {
+            evicted = ToolsDiskSweeper.sweep(agent, MEGABYTE);
+        }
+
+        assertEquals("The locked tool should be skipped", 1, evicted.size());
+        assertTrue(agent.createPath(homeA).exists());
+        assertFalse(agent.createPath(homeB).exists());
+        assertTrue("Lock files should never be deleted",
+                agent.createPath(homeB + InstallationLock.LOCK_FILE_SUFFIX).exists());
+    }
+
+    @Test
+    public void keepsLeasedInstallations() throws Exception {
+        j.jenkins.setNumExecutors(0);
+        DumbSlave agent = j.createSlave();
+        CustomTool.DescriptorImpl tools = j.jenkins.getDescriptorByType(CustomTool.DescriptorImpl.class);
+        CustomTool toolA = createTool("ToolA");
+        CustomTool toolB = createTool("ToolB");
+        tools.setInstallations(toolA, toolB);
+
+        j.buildAndAssertSuccess(createProject("ToolA"));
+        j.buildAndAssertSuccess(createProject("ToolB"));
+        String homeA = ToolUsageRegistry.getManagedHome(toolA, agent);
+
+        try (ToolUsageRegistry.Lease lease = ToolUsageRegistry.acquire(agent, Collections.singletonList(toolA))) {
+            ToolsDiskSweeper.sweep(agent, 0);
+            assertTrue("Leased tool should be kept", agent.createPath(homeA).exists());
+        }
+        ToolsDiskSweeper.sweep(agent, 0);
+        assertFalse("Released tool should be evicted", agent.createPath(homeA).exists());
+    }
+
+    private FreeStyleProject createProject(String toolName) throws Exception {
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.getBuildWrappersList().add(new CustomToolInstallWrapper(
+                new CustomToolInstallWrapper.SelectedTool[] {
+                    new CustomToolInstallWrapper.SelectedTool(toolName)
+                }, MulticonfigWrapperOptions.DEFAULT, false));
+        return project;
+    }
+
+    private CustomTool createTool(String name) {
+        List<ToolInstaller> installers = new ArrayList<>();
+        // About 0.7 MB per installation
+        installers.add(new CommandInstaller(null, "head -c 700000 /dev/zero > blob", "./"));
+        List<ToolProperty<ToolInstallation>> properties = new ArrayList<>();
+        properties.add(new InstallSourceProperty(installers));
+        return new CustomTool(name, null, properties, null, null, ToolVersionConfig.DEFAULT, null);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.installers;
+
+import hudson.Functions;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeFalse;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of {@link ParallelZipInstaller}.
+ */
+public class ParallelZipInstallerTest {
+
+    private static final int FILES = 100;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void extractsEntriesInParallel() throws Exception {
+        assumeFalse(Functions.isWindows());
+        File archive = tmp.newFile("tool.zip");
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(archive)) {
+            ZipArchiveEntry dir = new ZipArchiveEntry("tool/bin/");
+            dir.setUnixMode(040755);
+            zip.putArchiveEntry(dir);
+            zip.closeArchiveEntry();
+
+            for (int i = 0; i < FILES; i++) {
+                ZipArchiveEntry file = new ZipArchiveEntry("tool/lib/file" + i + ".txt");
+                file.setUnixMode(0100644);
+                zip.putArchiveEntry(file);
+                zip.write(("content" + i).getBytes(StandardCharsets.UTF_8));
+                zip.closeArchiveEntry();
+            }
+
+            ZipArchiveEntry script = new ZipArchiveEntry("tool/bin/hello");
+            script.setUnixMode(0100755);
+            zip.putArchiveEntry(script);
+            zip.write("#!/bin/sh\necho hello\n".getBytes(StandardCharsets.UTF_8));
+            zip.closeArchiveEntry();
+
+            ZipArchiveEntry link = new ZipArchiveEntry("tool/bin/hi");
+            link.setUnixMode(0120777);
+            zip.putArchiveEntry(link);
+            zip.write("hello".getBytes(StandardCharsets.UTF_8));
+            zip.closeArchiveEntry();
+        }
+
+        File target = tmp.newFolder();
+        int extracted = ParallelZipInstaller.unzip(archive, target, 4, "test");
+
+        assertEquals(FILES + 3, extracted);
+        for (int i = 0; i < FILES; i++) {
+            assertEquals("content" + i, new String(Files.readAllBytes(
+                    new File(target, "tool/lib/file" + i + ".txt").toPath()), StandardCharsets.UTF_8));
+        }
+        assertTrue("File should be executable", new File(target, "tool/bin/hello").canExecute());
+        assertEquals("hello", Files.readSymbolicLink(new File(target, "tool/bin/hi").toPath()).toString());
+    }
+
+    @Test
+    public void rejectsLinksOutsideOfTarget() throws Exception {
+        assumeFalse(Functions.isWindows());
+        File archive = tmp.newFile("evil.zip");
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(archive)) {
+            ZipArchiveEntry link = new ZipArchiveEntry("x");
+            link.setUnixMode(0120777);
+            zip.putArchiveEntry(link);
+            zip.write("../..".getBytes(StandardCharsets.UTF_8));
+            zip.closeArchiveEntry();
+
+            for (int i = 0; i < FILES; i++) {
+                ZipArchiveEntry file = new ZipArchiveEntry("x/evil" + i);
+                zip.putArchiveEntry(file);
+                zip.write("evil".getBytes(StandardCharsets.UTF_8));
+                zip.closeArchiveEntry();
+            }
+        }
+
+        File parent = tmp.newFolder();
+        File target = new File(parent, "a/b");
+        assertTrue(target.mkdirs());
+        try {
+            ParallelZipInstaller.unzip(archive, target, 4, "test");
+            fail("The link should be rejected");
+        } catch (IOException ex) {
+            // Expected
+        }
+        for (int i = 0; i < FILES; i++) {
+            assertFalse(new File(parent, "evil" + i).exists());
+        }
+        assertFalse(Files.isSymbolicLink(new File(target, "x").toPath()));
+    }
+}
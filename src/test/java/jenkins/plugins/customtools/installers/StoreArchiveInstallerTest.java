@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.installers;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import com.cloudbees.jenkins.plugins.customtools.CustomToolInstallWrapper;
+import com.synopsys.arc.jenkinsci.plugins.customtools.multiconfig.MulticonfigWrapperOptions;
+import com.synopsys.arc.jenkinsci.plugins.customtools.versions.ToolVersionConfig;
+import hudson.FilePath;
+import hudson.Functions;
+import hudson.model.FreeStyleProject;
+import hudson.slaves.DumbSlave;
+import hudson.tasks.Shell;
+import hudson.tools.InstallSourceProperty;
+import hudson.tools.ToolInstallation;
+import hudson.tools.ToolInstaller;
+import hudson.tools.ToolProperty;
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+
+/**
+ * Tests of {@link StoreArchiveInstaller}.
+ */
+public class StoreArchiveInstallerTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void toolsShareTheStoreEntry() throws Exception {
+        j.jenkins.setNumExecutors(0);
+        DumbSlave agent = j.createSlave();
+
+        File archive = tmp.newFile("tool.zip");
+        writeArchive(archive, "hello");
+        String url = archive.toURI().toURL().toExternalForm();
+
+        CustomTool.DescriptorImpl tools = j.jenkins.getDescriptorByType(CustomTool.DescriptorImpl.class);
+        tools.setInstallations(createTool("ToolA", url), createTool("ToolB", url));
+
+        FreeStyleProject project = j.createFreeStyleProject();
+        project.getBuildWrappersList().add(new CustomToolInstallWrapper(
+                new CustomToolInstallWrapper.SelectedTool[] {
+                    new CustomToolInstallWrapper.SelectedTool("ToolA"),
+                    new CustomToolInstallWrapper.SelectedTool("ToolB")
+                }, MulticonfigWrapperOptions.DEFAULT, false));
+        project.getBuildersList().add(new Shell("grep hello \"$ToolA_HOME/bin/hello.txt\"\n"
+                + "grep hello \"$ToolB_HOME/bin/hello.txt\""));
+
+        j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+        // Second build reuses the materialized homes
+        j.assertBuildStatusSuccess(project.scheduleBuild2(0));
+
+        List<FilePath> entries = agent.getRootPath().child(ToolStore.STORE_DIR).listDirectories();
+        assertEquals("Both tools should share a single store entry", 1, entries.size());
+        if (!Functions.isWindows()) {
+            File shared = new File(entries.get(0).child("tool/bin/hello.txt").getRemote());
+            assertFalse("Store entries should be read-only",
+                    Files.getPosixFilePermissions(shared.toPath()).contains(PosixFilePermission.OWNER_WRITE));
+        }
+    }
+
+    @Test
+    public void copiedHomesAreWritable() throws Exception {
+        assumeFalse(Functions.isWindows());
+        File source = tmp.newFolder("entry");
+        Files.createDirectories(new File(source, "bin").toPath());
+        Files.write(new File(source, "bin/hello.txt").toPath(), "hello".getBytes(StandardCharsets.UTF_8));
+        ToolStore.setWritable(source.toPath(), false);
+        File home = new File(tmp.getRoot(), "homes/tool");
+
+        try {
+            ToolStore.materialize(source, home, new URL("http://example.com/tool.zip"),
+                    "0000000000000000000000000000000000000000000000000000000000000000", null, Materialization.COPY);
+            assertTrue("Copies do not share files with the store", Files.getPosixFilePermissions(
+                    new File(home, "bin/hello.txt").toPath()).contains(PosixFilePermission.OWNER_WRITE));
+        } finally {
+            ToolStore.setWritable(source.toPath(), true);
+        }
+    }
+
+    @Test
+    public void unchangedArchivesAreNotDownloadedAgain() throws Exception {
+        File archive = tmp.newFile("tool.zip");
+        writeArchive(archive, "hello");
+        URL url = archive.toURI().toURL();
+        File store = new File(tmp.getRoot(), "store");
+
+        try {
+            File entry = ToolStore.add(store, url, null);
+
+            // Same length and modification time, the archive should not be read again
+            long lastModified = archive.lastModified();
+            byte[] garbage = new byte[(int) archive.length()];
+            Files.write(archive.toPath(), garbage);
+            assertTrue(archive.setLastModified(lastModified));
+            assertEquals(entry, ToolStore.add(store, url, null));
+
+            writeArchive(archive, "hello, world");
+            assertTrue(archive.setLastModified(lastModified + 10000));
+            File changed = ToolStore.add(store, url, null);
+            assertNotEquals("Changed archive should be downloaded again", entry, changed);
+            assertEquals("hello, world", new String(Files.readAllBytes(
+                    new File(changed, "tool/bin/hello.txt").toPath()), StandardCharsets.UTF_8));
+        } finally {
+            ToolStore.setWritable(store.toPath(), true);
+        }
+    }
+
+    @Test
+    public void cloneMaterializationMirrorsTheTree() throws Exception {
+        File source = tmp.newFolder("entry");
+        Files.createDirectories(new File(source, "bin").toPath());
+        Files.write(new File(source, "bin/hello.txt").toPath(), "hello".getBytes(StandardCharsets.UTF_8));
+        File home = new File(tmp.getRoot(), "homes/tool");
+
+        ToolStore.materialize(source, home, new URL("http://example.com/tool.zip"),
+                "0000000000000000000000000000000000000000000000000000000000000000", null, Materialization.CLONE);
+
+        assertFalse(Files.isSymbolicLink(home.toPath()));
+        assertEquals("hello", new String(Files.readAllBytes(new File(home, "bin/hello.txt").toPath()),
+                StandardCharsets.UTF_8));
+        assertTrue(ToolStore.isMaterialized(home, new URL("http://example.com/tool.zip"), null, null,
+                Materialization.CLONE));
+        assertFalse("Changed mode requires new materialization", ToolStore.isMaterialized(home,
+                new URL("http://example.com/tool.zip"), null, null, Materialization.LINK));
+    }
+
+    private static void writeArchive(File archive, String content) throws Exception {
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive.toPath()))) {
+            zip.putNextEntry(new ZipEntry("tool/bin/hello.txt"));
+            zip.write(content.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+
+    private CustomTool createTool(String name, String url) {
+        StoreArchiveInstaller installer = new StoreArchiveInstaller(null, url);
+        installer.setSubdir("tool");
+        List<ToolInstaller> installers = Collections.<ToolInstaller>singletonList(installer);
+        List<ToolProperty<ToolInstallation>> properties = new ArrayList<>();
+        properties.add(new InstallSourceProperty(installers));
+        return new CustomTool(name, null, properties, "bin", null, ToolVersionConfig.DEFAULT, null);
+    }
+}
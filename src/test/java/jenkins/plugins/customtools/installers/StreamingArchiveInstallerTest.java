@@ -0,0 +1,227 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.installers;
+
+import hudson.Functions;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeFalse;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of {@link StreamingArchiveInstaller} and {@link PipelinedInputStream}.
+ */
+public class StreamingArchiveInstallerTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void pipelinedStreamPassesAllData() throws Exception {
+        byte[] data = new byte[PipelinedInputStream.CHUNK_SIZE * 3 + 17];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new PipelinedInputStream(new ByteArrayInputStream(data), "test")) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+        assertArrayEquals(data, out.toByteArray());
+    }
+
+    @Test(expected = IOException.class)
+    public void pipelinedStreamPropagatesFailures() throws Exception {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        };
+        try (InputStream in = new PipelinedInputStream(failing, "test")) {
+            while (in.read() >= 0) {
+                // Read until the failure
+            }
+        }
+    }
+
+    @Test
+    public void pipelinedStreamClosesStalledSource() throws Exception {
+        final CountDownLatch reading = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        final AtomicReference<Thread> reader = new AtomicReference<>();
+        InputStream stalled = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                reader.set(Thread.currentThread());
+                reading.countDown();
+                // Like a socket read, the wait ignores interruption
+                while (true) {
+                    try {
+                        closed.await();
+                        throw new IOException("Stream closed");
+                    } catch (InterruptedException ex) {
+                        // Keep waiting
+                    }
+                }
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        };
+        InputStream in = new PipelinedInputStream(stalled, "test");
+        assertTrue(reading.await(10, TimeUnit.SECONDS));
+        in.close();
+        assertEquals("Source should be closed", 0, closed.getCount());
+        assertFalse("Reading thread should terminate", reader.get().isAlive());
+    }
+
+    @Test
+    public void extractsPermissionsAndLinks() throws Exception {
+        assumeFalse(Functions.isWindows());
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(new GZIPOutputStream(archive))) {
+            TarArchiveEntry dir = new TarArchiveEntry("tool/bin/");
+            tar.putArchiveEntry(dir);
+            tar.closeArchiveEntry();
+
+            byte[] script = "#!/bin/sh\necho hello\n".getBytes(StandardCharsets.UTF_8);
+            TarArchiveEntry file = new TarArchiveEntry("tool/bin/hello");
+            file.setMode(0755);
+            file.setSize(script.length);
+            tar.putArchiveEntry(file);
+            tar.write(script);
+            tar.closeArchiveEntry();
+
+            TarArchiveEntry link = new TarArchiveEntry("tool/bin/hi", TarArchiveEntry.LF_SYMLINK);
+            link.setLinkName("hello");
+            tar.putArchiveEntry(link);
+            tar.closeArchiveEntry();
+        }
+
+        File target = tmp.newFolder();
+        StreamingArchiveInstaller.Compression compression = StreamingArchiveInstaller.Compression.of("tool.tar.gz");
+        try (InputStream in = new PipelinedInputStream(
+                compression.decompress(new ByteArrayInputStream(archive.toByteArray())), "test")) {
+            StreamingArchiveInstaller.untar(in, target);
+        }
+
+        File hello = new File(target, "tool/bin/hello");
+        assertTrue("File should be executable", hello.canExecute());
+        assertTrue(Files.isSymbolicLink(new File(target, "tool/bin/hi").toPath()));
+        assertEquals("hello", Files.readSymbolicLink(new File(target, "tool/bin/hi").toPath()).toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsEntriesOutsideOfTarget() throws Exception {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(archive)) {
+            TarArchiveEntry file = new TarArchiveEntry("../evil");
+            tar.putArchiveEntry(file);
+            tar.closeArchiveEntry();
+        }
+        StreamingArchiveInstaller.untar(new ByteArrayInputStream(archive.toByteArray()), tmp.newFolder());
+    }
+
+    @Test
+    public void rejectsLinksOutsideOfTarget() throws Exception {
+        assumeFalse(Functions.isWindows());
+        for (String[] links : new String[][] {{"x", "/tmp"}, {"x", "../.."}, {"d/l", "..", "d/l/x", ".."}}) {
+            ByteArrayOutputStream archive = new ByteArrayOutputStream();
+            try (TarArchiveOutputStream tar = new TarArchiveOutputStream(archive)) {
+                for (int i = 0; i < links.length; i += 2) {
+                    TarArchiveEntry link = new TarArchiveEntry(links[i], TarArchiveEntry.LF_SYMLINK);
+                    link.setLinkName(links[i + 1]);
+                    tar.putArchiveEntry(link);
+                    tar.closeArchiveEntry();
+                }
+                byte[] content = "evil".getBytes(StandardCharsets.UTF_8);
+                TarArchiveEntry file = new TarArchiveEntry(links[links.length - 2] + "/evil");
+                file.setSize(content.length);
+                tar.putArchiveEntry(file);
+                tar.write(content);
+                tar.closeArchiveEntry();
+            }
+
+            File parent = tmp.newFolder();
+            File target = new File(parent, "a/b");
+            assertTrue(target.mkdirs());
+            try {
+                StreamingArchiveInstaller.untar(new ByteArrayInputStream(archive.toByteArray()), target);
+                fail("Link " + links[links.length - 2] + " should be rejected");
+            } catch (IOException ex) {
+                // Expected
+            }
+            assertFalse(new File(parent, "evil").exists());
+            assertFalse(new File(parent, "a/evil").exists());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsHardLinksOutsideOfTarget() throws Exception {
+        assumeFalse(Functions.isWindows());
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(archive)) {
+            TarArchiveEntry dir = new TarArchiveEntry("up", TarArchiveEntry.LF_SYMLINK);
+            dir.setLinkName(".");
+            tar.putArchiveEntry(dir);
+            tar.closeArchiveEntry();
+            TarArchiveEntry link = new TarArchiveEntry("passwd", TarArchiveEntry.LF_LINK);
+            link.setLinkName("up/../../etc/passwd");
+            tar.putArchiveEntry(link);
+            tar.closeArchiveEntry();
+        }
+        StreamingArchiveInstaller.untar(new ByteArrayInputStream(archive.toByteArray()), tmp.newFolder());
+    }
+
+    @Test(expected = IOException.class)
+    public void pipelinedStreamPropagatesErrors() throws Exception {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() {
+                throw new StackOverflowError("Decompressor failure");
+            }
+        };
+        try (InputStream in = new PipelinedInputStream(failing, "test")) {
+            while (in.read() >= 0) {
+                // Read until the failure
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.util;
+
+import com.cloudbees.jenkins.plugins.customtools.CustomTool;
+import com.synopsys.arc.jenkinsci.plugins.customtools.LabelSpecifics;
+import com.synopsys.arc.jenkinsci.plugins.customtools.versions.ToolVersionConfig;
+import hudson.slaves.DumbSlave;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+/**
+ * Tests of {@link LabelSpecificsMatcher}.
+ */
+public class LabelSpecificsMatcherTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void specificsFollowLabelsOfTheNode() throws Exception {
+        final CustomTool tool = new CustomTool("MyTool", null, null, null, new LabelSpecifics[] {
+            new LabelSpecifics("linux", "SPEC=linux", null),
+            new LabelSpecifics("windows", "SPEC=windows", null),
+            new LabelSpecifics(null, "SPEC=any", null),
+            new LabelSpecifics("linux && !arm", "SPEC=x86", null),
+        }, ToolVersionConfig.DEFAULT, null);
+
+        final DumbSlave agent = j.createSlave("agent", "linux", null);
+        assertEquals("[linux, any, x86]", getAppliedVars(tool, agent));
+        // Cached result
+        assertEquals("[linux, any, x86]", getAppliedVars(tool, agent));
+
+        agent.setLabelString("linux arm");
+        assertEquals("[linux, any]", getAppliedVars(tool, agent));
+
+        agent.setLabelString("windows");
+        assertEquals("[windows, any]", getAppliedVars(tool, agent));
+    }
+
+    private static String getAppliedVars(CustomTool tool, DumbSlave agent) {
+        final List<String> out = new ArrayList<>();
+        for (LabelSpecifics spec : tool.getAppliedSpecifics(agent)) {
+            out.add(spec.getAdditionalVars().replace("SPEC=", ""));
+        }
+        return out.toString();
+    }
+}
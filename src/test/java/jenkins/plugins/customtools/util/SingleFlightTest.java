@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests of {@link SingleFlight}.
+ */
+public class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCallersShareTheResult() throws Exception {
+        final SingleFlight<String, String> flight = new SingleFlight<>();
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch waiting = new CountDownLatch(1);
+
+        final Future<String> owner = executor.submit(() -> flight.execute("tool", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            release.await();
+            return "home";
+        }, null));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        final Future<String> waiter = executor.submit(() -> flight.execute("tool", () -> {
+            calls.incrementAndGet();
+            return "other";
+        }, waiting::countDown));
+        assertTrue(waiting.await(10, TimeUnit.SECONDS));
+        release.countDown();
+
+        assertEquals("home", owner.get());
+        assertEquals("home", waiter.get());
+        assertEquals("The task should run once", 1, calls.get());
+
+        // Completed tasks are not reused
+        assertEquals("next", flight.execute("tool", () -> "next", null));
+    }
+
+    @Test
+    public void waiterTakesOverInterruptedTask() throws Exception {
+        final SingleFlight<String, String> flight = new SingleFlight<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch waiting = new CountDownLatch(1);
+
+        final Future<String> owner = executor.submit(() -> flight.execute("tool", () -> {
+            started.countDown();
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            return "aborted";
+        }, null));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        final Future<String> waiter = executor.submit(() -> flight.execute("tool", () -> "home", waiting::countDown));
+        assertTrue(waiting.await(10, TimeUnit.SECONDS));
+
+        // The build owning the installation gets aborted
+        owner.cancel(true);
+        assertEquals("The waiter should run the task again", "home", waiter.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void failuresArePropagatedToWaiters() throws Exception {
+        final SingleFlight<String, String> flight = new SingleFlight<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch waiting = new CountDownLatch(1);
+
+        final Future<String> owner = executor.submit(() -> flight.execute("tool", () -> {
+            started.countDown();
+            release.await();
+            throw new IOException("Installation failed");
+        }, null));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        final Future<String> waiter = executor.submit(() -> flight.execute("tool", () -> "home", waiting::countDown));
+        assertTrue(waiting.await(10, TimeUnit.SECONDS));
+        release.countDown();
+
+        for (Future<String> future : Arrays.asList(owner, waiter)) {
+            try {
+                future.get();
+                fail("The failure should be propagated");
+            } catch (ExecutionException ex) {
+                assertEquals("Installation failed", ex.getCause().getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.util.envvars;
+
+import hudson.slaves.DumbSlave;
+import hudson.slaves.EnvironmentVariablesNodeProperty;
+import static org.junit.Assert.assertEquals;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+/**
+ * Tests of {@link NodeVariables}.
+ */
+public class NodeVariablesTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void nodeVariablesOverrideGlobalVariables() throws Exception {
+        j.jenkins.getGlobalNodeProperties().add(new EnvironmentVariablesNodeProperty(
+                new EnvironmentVariablesNodeProperty.Entry("TOOLS", "/global/tools"),
+                new EnvironmentVariablesNodeProperty.Entry("VERSION", "1.0")));
+        j.jenkins.save();
+        DumbSlave agent = j.createSlave();
+        agent.getNodeProperties().add(new EnvironmentVariablesNodeProperty(
+                new EnvironmentVariablesNodeProperty.Entry("TOOLS", "/agent/tools")));
+        j.jenkins.updateNode(agent);
+
+        assertEquals("/agent/tools/1.0/${MISSING}",
+                VariablesSubstitutionHelper.PATH.resolveVariable("${TOOLS}/${VERSION}/${MISSING}", agent));
+        assertEquals("/global/tools/1.0",
+                VariablesSubstitutionHelper.PATH.resolveVariable("${TOOLS}/${VERSION}", j.jenkins));
+
+        // The snapshot is discarded once the global configuration is saved
+        j.jenkins.getGlobalNodeProperties().replace(new EnvironmentVariablesNodeProperty(
+                new EnvironmentVariablesNodeProperty.Entry("TOOLS", "/global/tools"),
+                new EnvironmentVariablesNodeProperty.Entry("VERSION", "2.0")));
+        j.jenkins.save();
+        assertEquals("/agent/tools/2.0",
+                VariablesSubstitutionHelper.PATH.resolveVariable("${TOOLS}/${VERSION}", agent));
+    }
+
+    @Test
+    public void valuesWithMacrosAreSubstitutedPerProperty() throws Exception {
+        j.jenkins.getGlobalNodeProperties().add(new EnvironmentVariablesNodeProperty(
+                new EnvironmentVariablesNodeProperty.Entry("VERSION", "1.0")));
+        j.jenkins.save();
+        DumbSlave agent = j.createSlave();
+        agent.getNodeProperties().add(new EnvironmentVariablesNodeProperty(
+                new EnvironmentVariablesNodeProperty.Entry("TOOLS", "/agent/${VERSION}"),
+                new EnvironmentVariablesNodeProperty.Entry("EMPTY", "")));
+        j.jenkins.updateNode(agent);
+
+        // Global variables are substituted into values of node variables
+        assertEquals("/agent/1.0/bin", VariablesSubstitutionHelper.PATH.resolveVariable("${TOOLS}/bin", agent));
+        // Empty node variables may join macros of global variables
+        assertEquals("/opt/1.0", VariablesSubstitutionHelper.PATH.resolveVariable("/opt/$${EMPTY}{VERSION}", agent));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.util.envvars;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+/**
+ * Tests of {@link PropertiesValueEscaper}.
+ */
+public class PropertiesValueEscaperTest {
+
+    private static final String ALPHABET = " \t\n\r\f=:#!\\\u0000\u001f~\u007f\u00e9\u4e2daZ09${}\ud83d\ude00";
+
+    /**
+     * Escapes the value with {@link Properties#store(java.io.OutputStream, String)}.
+     * It is the implementation used before {@link PropertiesValueEscaper}.
+     */
+    static String storeAndExtract(String value) throws IOException {
+        final ByteArrayOutputStream str = new ByteArrayOutputStream();
+        final Properties prop = new Properties();
+        prop.setProperty("TMP", value);
+        prop.store(str, "tmp");
+        return new String(str.toByteArray(), StandardCharsets.UTF_8).split("\n")[2].replaceFirst(".*TMP=", "").trim();
+    }
+
+    private static void assertEscaped(String value) throws IOException {
+        assertEquals("Escaping of '" + value + "'", storeAndExtract(value), PropertiesValueEscaper.escape(value));
+    }
+
+    @Test
+    public void specialCharacters() throws IOException {
+        for (String value : new String[] {"", " ", "   ", " leading", "trailing  ", "in ner", "\ttab", "a=b", "a:b",
+                "#comment", "!bang", "back\\slash", "line\nbreak\r\n", "form\ffeed", "/usr/bin:/bin", "C:\\Tools"}) {
+            assertEscaped(value);
+        }
+    }
+
+    @Test
+    public void unicode() throws IOException {
+        for (String value : new String[] {"\u00e9t\u00e9", "\u4e2d\u6587", "\ud83d\ude00", "\u0000", "\u007f", "~",
+                "\uffff", " \u00a0"}) {
+            assertEscaped(value);
+        }
+    }
+
+    @Test
+    public void randomValues() throws IOException {
+        final Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            final StringBuilder value = new StringBuilder();
+            final int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                value.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            assertEscaped(value.toString());
+        }
+    }
+
+    @Test
+    public void plainValueIsNotCopied() {
+        final String value = "/opt/tools/maven-3.6.3/bin";
+        assertSame(value, PropertiesValueEscaper.escape(value));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.util.envvars;
+
+import hudson.EnvVars;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+/**
+ * Tests of {@link ToolsEnvironment}.
+ */
+public class ToolsEnvironmentTest {
+
+    @Test
+    public void identicalOverlaysAreShared() throws Exception {
+        final ToolsEnvironment first = ToolsEnvironment.of("/opt/a/bin",
+                Collections.singletonMap("A_HOME", "/opt/a"), Collections.singletonList(VariablesTemplate.compile("A_OPTS=-x")));
+        final ToolsEnvironment second = ToolsEnvironment.of("/opt/a/bin",
+                Collections.singletonMap("A_HOME", "/opt/a"), Collections.singletonList(VariablesTemplate.compile("A_OPTS=-x")));
+        final ToolsEnvironment other = ToolsEnvironment.of("/opt/a/bin",
+                Collections.singletonMap("A_HOME", "/opt/b"), Collections.singletonList(VariablesTemplate.compile("A_OPTS=-x")));
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+    }
+
+    @Test
+    public void overlayIsAppliedToProcessEnvironment() throws Exception {
+        final ToolsEnvironment overlay = ToolsEnvironment.of("/opt/a/bin",
+                Collections.singletonMap("A_HOME", "/opt/a"),
+                Arrays.asList(VariablesTemplate.compile("A_OPTS=-x ${A_OPTS}\nC=${C}${C}"),
+                        VariablesTemplate.compile("B=${A_HOME}")));
+        final EnvVars vars = new EnvVars("PATH", "/usr/bin", "A_OPTS", "-y");
+
+        overlay.applyTo(vars);
+
+        assertEquals("/opt/a", vars.get("A_HOME"));
+        assertEquals("-x -y", vars.get("A_OPTS"));
+        // Additional variables do not expand other variables
+        assertEquals("${A_HOME}", vars.get("B"));
+        assertEquals("", vars.get("C"));
+        // PATH is passed as an override, see JENKINS-20560
+        assertFalse(vars.containsKey("PATH"));
+        assertEquals("/opt/a/bin" + File.pathSeparator + "/usr/bin", vars.get("PATH+"));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026, CloudBees Inc., Synopsys Inc. and contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jenkins.plugins.customtools.util.envvars;
+
+import hudson.EnvVars;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Tests of {@link VariablesSubstitutionHelper}.
+ */
+public class VariablesSubstitutionHelperTest {
+
+    private static final String[] INPUTS = {
+        "/opt/${TOOL}/${VERSION}/bin",
+        "${TOOL}${TOOL}-${MISSING}",
+        "${tool} is not ${TOOL}",
+        "${}${",
+        "${A${TOOL}}",
+        "$${REF}",
+        "${REF}${TOOL}",
+        "${SPACED}:${TOOL}",
+        "no macros",
+        "${VERSION",
+        "$${EMPTY}{TOOL}",
+        "$${EMPTY}${EMPTY}{TOOL}",
+        "${EMPTY}{TOOL}",
+        "$${EMPTY}{TOOL}${TOOL}",
+        "${TOOL}$${EMPTY}{TOOL}",
+        "${A}B}",
+        "${A}${B}:${TOOL}",
+    };
+
+    private static EnvVars environment() {
+        return new EnvVars("TOOL", "maven", "VERSION", "3.6.3", "REF", "{TOOL}", "SPACED", " a=b:c  ",
+                "Amaven", "nested", "EMPTY", "",
+                "A}B", "braced", "A}${B", "joined");
+    }
+
+    @Test
+    public void sameResultsAsSubstitutionByEntries() {
+        final EnvVars env = environment();
+        for (VariablesSubstitutionHelper helper : new VariablesSubstitutionHelper[] {
+                VariablesSubstitutionHelper.PATH, VariablesSubstitutionHelper.PROP_FILE}) {
+            for (String input : INPUTS) {
+                assertEquals(input, helper.resolveVariableByEntries(input, env), helper.resolveVariable(input, env));
+                // Cached templates produce the same result
+                assertEquals(input, helper.resolveVariableByEntries(input, env), helper.resolveVariable(input, env));
+            }
+        }
+    }
+
+    @Test
+    public void substitutesExactNames() {
+        final EnvVars env = environment();
+        assertEquals("/opt/maven/3.6.3/bin", VariablesSubstitutionHelper.PATH.resolveVariable(INPUTS[0], env));
+        assertEquals("mavenmaven-${MISSING}", VariablesSubstitutionHelper.PATH.resolveVariable(INPUTS[1], env));
+        assertEquals("${tool} is not maven", VariablesSubstitutionHelper.PATH.resolveVariable(INPUTS[2], env));
+        assertEquals("braced", VariablesSubstitutionHelper.PATH.resolveVariable("${A}B}", env));
+    }
+}